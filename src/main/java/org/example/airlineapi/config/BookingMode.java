@@ -0,0 +1,20 @@
+package org.example.airlineapi.config;
+
+public enum BookingMode {
+    /**
+     * Serializes every booking of a flight on the flight row and the passenger on the person row.
+     */
+    ROW_LOCK,
+
+    /**
+     * Locks only the booked seat and the passenger slot of the flight in an in-JVM striped lock table.
+     * Correct only while a single application instance takes bookings.
+     */
+    SEAT_STRIPED,
+
+    /**
+     * Books with a single conditional insert and no locks; unique constraints on the ticket table reject
+     * double-booked seats and passengers.
+     */
+    CONSTRAINT
+}
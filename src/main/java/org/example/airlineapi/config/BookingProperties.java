@@ -0,0 +1,13 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.booking")
+public class BookingProperties {
+    private BookingMode mode = BookingMode.ROW_LOCK;
+    private int lockStripes = 1024;
+}
@@ -0,0 +1,16 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.dto-cache")
+public class DtoCacheProperties {
+    private boolean enabled = true;
+    private int maxEntries = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+}
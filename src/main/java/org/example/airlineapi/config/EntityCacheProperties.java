@@ -0,0 +1,18 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.entity-cache")
+public class EntityCacheProperties {
+    private boolean enabled = true;
+    private int maxEntries = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+    private int queryMaxEntries = 1000;
+    private Duration queryTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,13 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.imports")
+public class ImportProperties {
+    private int chunkSize = 500;
+    private int maxReportedErrors = 1000;
+}
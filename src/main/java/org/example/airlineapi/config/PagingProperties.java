@@ -0,0 +1,18 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.paging")
+public class PagingProperties {
+    private Duration countTtl = Duration.ofMinutes(5);
+    private int countCacheSize = 1000;
+    private boolean concurrentCount = false;
+    private int maxConcurrentCounts = 2;
+    private double streamPoolShare = 0.2;
+}
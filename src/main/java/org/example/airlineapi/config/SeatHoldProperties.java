@@ -0,0 +1,16 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.holds")
+public class SeatHoldProperties {
+    private Duration ttl = Duration.ofMinutes(5);
+    private Duration tick = Duration.ofMillis(100);
+    private int wheelSize = 512;
+}
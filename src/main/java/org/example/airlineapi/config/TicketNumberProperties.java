@@ -0,0 +1,12 @@
+package org.example.airlineapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "airline.ticket-numbers")
+public class TicketNumberProperties {
+    private int blockSize = 50;
+}
@@ -0,0 +1,48 @@
+package org.example.airlineapi.config.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.config.EntityCacheProperties;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Keeps Hibernate's second-level cache in this instance's heap. The update timestamps region is never bounded
+ * or expired, as a lost timestamp would let the query cache return stale results.
+ */
+@RequiredArgsConstructor
+public class BoundedRegionFactory extends RegionFactoryTemplate {
+
+    private final EntityCacheProperties properties;
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new BoundedStorageAccess(properties.getMaxEntries(), properties.getTtl());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(properties.getQueryMaxEntries(), properties.getQueryTtl());
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(Integer.MAX_VALUE, Duration.ofNanos(Long.MAX_VALUE));
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.airlineapi.config.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class BoundedStorageAccess implements DomainDataStorageAccess {
+
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries;
+
+    BoundedStorageAccess(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.writtenAt >= ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, now));
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return getFromCache(key, null) != null;
+    }
+
+    @Override
+    public void evictData() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void evictData(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    private record Entry(Object value, long writtenAt) {
+    }
+}
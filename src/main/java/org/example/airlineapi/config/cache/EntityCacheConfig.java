@@ -0,0 +1,22 @@
+package org.example.airlineapi.config.cache;
+
+import org.example.airlineapi.config.EntityCacheProperties;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(EntityCacheProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.isEnabled());
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, properties.isEnabled());
+            if (properties.isEnabled()) {
+                hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, new BoundedRegionFactory(properties));
+            }
+        };
+    }
+}
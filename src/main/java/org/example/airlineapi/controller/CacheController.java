@@ -0,0 +1,25 @@
+package org.example.airlineapi.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.model.cache.dto.CacheStatsDto;
+import org.example.airlineapi.service.cache.DtoCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/v1/caches")
+public class CacheController {
+
+    private final List<DtoCache<?>> dtoCaches;
+
+    @GetMapping
+    public List<CacheStatsDto> getStats(){
+        return dtoCaches.stream()
+                .map(DtoCache::getStats)
+                .toList();
+    }
+}
@@ -2,20 +2,35 @@ package org.example.airlineapi.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.model.bulk.ImportFormat;
+import org.example.airlineapi.model.bulk.dto.ImportReportDto;
 import org.example.airlineapi.model.flight.FlightSearchCriteria;
 import org.example.airlineapi.model.flight.command.CreateFlightCommand;
+import org.example.airlineapi.model.flight.command.FlightIdsCommand;
 import org.example.airlineapi.model.flight.command.UpdateFlightTimeCommand;
 import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.example.airlineapi.model.flight.dto.FlightFreeSeatsDto;
+import org.example.airlineapi.model.page.CountMode;
+import org.example.airlineapi.model.page.KeysetPage;
+import org.example.airlineapi.model.page.SlicedPage;
 import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
 import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
 import org.example.airlineapi.model.ticket.command.UpdateTicketPersonCommand;
 import org.example.airlineapi.model.ticket.dto.TicketDto;
 import org.example.airlineapi.service.FlightService;
 import org.example.airlineapi.service.TicketService;
+import org.example.airlineapi.service.bulk.BulkImportService;
+import org.example.airlineapi.utils.ETags;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -23,10 +38,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 
@@ -37,20 +58,47 @@ public class FlightController {
 
     private final FlightService flightService;
     private final TicketService ticketService;
+    private final BulkImportService bulkImportService;
+    private final NdjsonResponses ndjsonResponses;
 
     @GetMapping
     public List<FlightDto> getAll(){
         return flightService.getAll();
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(){
+        return ndjsonResponses.stream(writer -> flightService.streamAll(writer::write));
+    }
+
     @GetMapping("/search")
     public Page<FlightDto> search(@PageableDefault Pageable pageable, @RequestBody FlightSearchCriteria criteria){
         return flightService.search(pageable, criteria);
     }
 
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(@SortDefault("id") Sort sort, @RequestBody FlightSearchCriteria criteria){
+        return ndjsonResponses.stream(writer -> flightService.streamSearch(sort, criteria, writer::write));
+    }
+
+    @GetMapping(value = "/search", params = {"cursor", "!count"})
+    public KeysetPage<FlightDto> search(@RequestParam String cursor, @PageableDefault Pageable pageable, @RequestBody FlightSearchCriteria criteria){
+        return flightService.search(cursor, pageable, criteria);
+    }
+
+    @GetMapping(value = "/search", params = {"count", "!cursor"})
+    public SlicedPage<FlightDto> search(@RequestParam CountMode count, @PageableDefault Pageable pageable, @RequestBody FlightSearchCriteria criteria){
+        return flightService.search(count, pageable, criteria);
+    }
+
     @GetMapping("/{id}")
-    public FlightDto getFlightById(@PathVariable long id){
-        return flightService.getById(id);
+    public ResponseEntity<FlightDto> getFlightById(@PathVariable long id, WebRequest request){
+        if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ETags.of(flightService.getVersion(id)))){
+            return null;
+        }
+        FlightDto flight = flightService.getById(id);
+        return ETags.tagged(flight, flight.getVersion());
     }
 
     @GetMapping("/{id}/free-seats")
@@ -58,20 +106,37 @@ public class FlightController {
         return flightService.getFreeSeat(id);
     }
 
+    /**
+     * A POST only because a few hundred ids do not fit a query string.
+     */
+    @PostMapping("/free-seats")
+    public List<FlightFreeSeatsDto> getFreeSeatCounts(@RequestBody @Valid FlightIdsCommand command){
+        return flightService.getFreeSeatCounts(command.getFlightIds());
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public FlightDto create(@RequestBody @Valid CreateFlightCommand command){
         return flightService.create(command);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    public ImportReportDto importFlights(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return bulkImportService.importFlights(body, contentType);
+    }
+
     @PutMapping("/{id}")
-    public FlightDto update(@PathVariable long id, @RequestBody @Valid CreateFlightCommand command){
-        return flightService.update(id, command);
+    public ResponseEntity<FlightDto> update(@PathVariable long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                            @RequestBody @Valid CreateFlightCommand command){
+        FlightDto flight = flightService.update(id, ETags.ifMatch(ifMatch), command);
+        return ETags.tagged(flight, flight.getVersion());
     }
 
     @PatchMapping("/{id}")
-    public FlightDto updateTime(@PathVariable long id, @RequestBody @Valid UpdateFlightTimeCommand  command){
-        return flightService.updateTime(id, command);
+    public ResponseEntity<FlightDto> updateTime(@PathVariable long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestBody @Valid UpdateFlightTimeCommand  command){
+        FlightDto flight = flightService.updateTime(id, ETags.ifMatch(ifMatch), command);
+        return ETags.tagged(flight, flight.getVersion());
     }
 
     @DeleteMapping("/{id}")
@@ -85,15 +150,53 @@ public class FlightController {
         return ticketService.getAllByFlightId(flightId, pageable, criteria);
     }
 
+    @GetMapping(value = "/{flightId}/tickets", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByFlightId(@PathVariable("flightId") long flightId, @SortDefault("id") Sort sort, @RequestBody TicketSearchCriteria criteria){
+        return ndjsonResponses.stream(writer -> ticketService.streamAllByFlightId(flightId, sort, criteria, writer::write));
+    }
+
+    @GetMapping(value = "/{flightId}/tickets", params = {"cursor", "!count"})
+    public KeysetPage<TicketDto> getAllByFlightId(@PathVariable("flightId") long flightId, @RequestParam String cursor, @PageableDefault Pageable pageable, @RequestBody TicketSearchCriteria criteria){
+        return ticketService.getAllByFlightId(flightId, cursor, pageable, criteria);
+    }
+
+    @GetMapping(value = "/{flightId}/tickets", params = {"count", "!cursor"})
+    public SlicedPage<TicketDto> getAllByFlightId(@PathVariable("flightId") long flightId, @RequestParam CountMode count, @PageableDefault Pageable pageable, @RequestBody TicketSearchCriteria criteria){
+        return ticketService.getAllByFlightId(flightId, count, pageable, criteria);
+    }
+
     @PostMapping("/{flightId}/tickets")
     @ResponseStatus(HttpStatus.CREATED)
     public TicketDto create(@PathVariable("flightId") long flightId, @RequestBody @Valid CreateTicketCommand command){
         return ticketService.create(flightId, command);
     }
 
-    @PutMapping("/{flightId}/tickets/{ticketId}")
-    public TicketDto updatePerson(@PathVariable("flightId") long flightId, @PathVariable("ticketId") long ticketId, @RequestBody @Valid UpdateTicketPersonCommand command){
-        return ticketService.updatePerson(flightId, ticketId, command);
+    @PostMapping("/{flightId}/tickets/group")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TicketDto> createGroup(@PathVariable("flightId") long flightId, @RequestBody @Valid CreateGroupTicketCommand command){
+        return ticketService.createAll(flightId, command);
     }
 
+    @PostMapping(value = "/{flightId}/tickets/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    public ImportReportDto importTickets(@PathVariable("flightId") long flightId, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return bulkImportService.importTickets(flightId, body, contentType);
+    }
+
+    @GetMapping("/{flightId}/tickets/{ticketId}")
+    public ResponseEntity<TicketDto> getTicketById(@PathVariable("flightId") long flightId, @PathVariable("ticketId") long ticketId, WebRequest request){
+        if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ticketService.getETag(flightId, ticketId))){
+            return null;
+        }
+        TicketDto ticket = ticketService.getById(flightId, ticketId);
+        return ETags.tagged(ticket, ticket.getVersion(), ticket.getPersonVersion(), ticket.getFlightVersion());
+    }
+
+    @PutMapping("/{flightId}/tickets/{ticketId}")
+    public ResponseEntity<TicketDto> updatePerson(@PathVariable("flightId") long flightId, @PathVariable("ticketId") long ticketId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestBody @Valid UpdateTicketPersonCommand command){
+        TicketDto ticket = ticketService.updatePerson(flightId, ticketId, ETags.ifMatch(ifMatch), command);
+        return ETags.tagged(ticket, ticket.getVersion(), ticket.getPersonVersion(), ticket.getFlightVersion());
+    }
 }
@@ -0,0 +1,55 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.service.paging.StreamPermits;
+import org.example.airlineapi.utils.NdjsonWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+class NdjsonResponses {
+
+    private final StreamPermits streamPermits;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Refused with 503 up front when no stream permit is left. The permit is given back when the body ends, or at
+     * the latest when the async request completes, which also covers a body that never runs.
+     */
+    ResponseEntity<StreamingResponseBody> stream(Consumer<NdjsonWriter> source){
+        StreamPermits.Permit permit = streamPermits.acquire();
+        try {
+            WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest())
+                    .registerCallableInterceptor(permit, new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                            permit.close();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+
+        StreamingResponseBody body = out -> {
+            try (permit; NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                source.accept(writer);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
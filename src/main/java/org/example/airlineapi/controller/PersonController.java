@@ -2,6 +2,11 @@ package org.example.airlineapi.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.model.bulk.ImportFormat;
+import org.example.airlineapi.model.bulk.dto.ImportReportDto;
+import org.example.airlineapi.model.page.CountMode;
+import org.example.airlineapi.model.page.KeysetPage;
+import org.example.airlineapi.model.page.SlicedPage;
 import org.example.airlineapi.model.person.PersonSearchCriteria;
 import org.example.airlineapi.model.person.command.CreatePersonCommand;
 import org.example.airlineapi.model.person.dto.PersonDto;
@@ -9,20 +14,33 @@ import org.example.airlineapi.model.ticket.TicketSearchCriteria;
 import org.example.airlineapi.model.ticket.dto.TicketDto;
 import org.example.airlineapi.service.PersonService;
 import org.example.airlineapi.service.TicketService;
+import org.example.airlineapi.service.bulk.BulkImportService;
+import org.example.airlineapi.utils.ETags;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RequestMapping("api/v1/persons")
@@ -32,20 +50,47 @@ public class PersonController {
 
     private final PersonService personService;
     private final TicketService ticketService;
+    private final BulkImportService bulkImportService;
+    private final NdjsonResponses ndjsonResponses;
 
     @GetMapping
     public List<PersonDto> getAll(){
         return personService.getAll();
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(){
+        return ndjsonResponses.stream(writer -> personService.streamAll(writer::write));
+    }
+
     @GetMapping("/search")
     public Page<PersonDto> search(@PageableDefault Pageable pageable, @RequestBody PersonSearchCriteria criteria){
         return personService.search(pageable, criteria);
     }
 
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(@SortDefault("id") Sort sort, @RequestBody PersonSearchCriteria criteria){
+        return ndjsonResponses.stream(writer -> personService.streamSearch(sort, criteria, writer::write));
+    }
+
+    @GetMapping(value = "/search", params = {"cursor", "!count"})
+    public KeysetPage<PersonDto> search(@RequestParam String cursor, @PageableDefault Pageable pageable, @RequestBody PersonSearchCriteria criteria){
+        return personService.search(cursor, pageable, criteria);
+    }
+
+    @GetMapping(value = "/search", params = {"count", "!cursor"})
+    public SlicedPage<PersonDto> search(@RequestParam CountMode count, @PageableDefault Pageable pageable, @RequestBody PersonSearchCriteria criteria){
+        return personService.search(count, pageable, criteria);
+    }
+
     @GetMapping("/{id}")
-    public PersonDto getPersonById(@PathVariable long id){
-        return personService.getById(id);
+    public ResponseEntity<PersonDto> getPersonById(@PathVariable long id, WebRequest request){
+        if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ETags.of(personService.getVersion(id)))){
+            return null;
+        }
+        PersonDto person = personService.getById(id);
+        return ETags.tagged(person, person.getVersion());
     }
 
     @PostMapping
@@ -54,9 +99,16 @@ public class PersonController {
         return personService.create(command);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    public ImportReportDto importPersons(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return bulkImportService.importPersons(body, contentType);
+    }
+
     @PutMapping("/{id}")
-    public PersonDto update(@PathVariable long id, @RequestBody @Valid CreatePersonCommand command){
-        return personService.update(id, command);
+    public ResponseEntity<PersonDto> update(@PathVariable long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                            @RequestBody @Valid CreatePersonCommand command){
+        PersonDto person = personService.update(id, ETags.ifMatch(ifMatch), command);
+        return ETags.tagged(person, person.getVersion());
     }
 
     @DeleteMapping("/{id}")
@@ -70,4 +122,18 @@ public class PersonController {
         return ticketService.getAllByPersonId(id, pageable, criteria);
     }
 
+    @GetMapping(value = "/{personId}/tickets", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByPersonId(@PathVariable("personId") long id, @SortDefault("id") Sort sort, @RequestBody TicketSearchCriteria criteria){
+        return ndjsonResponses.stream(writer -> ticketService.streamAllByPersonId(id, sort, criteria, writer::write));
+    }
+
+    @GetMapping(value = "/{personId}/tickets", params = {"cursor", "!count"})
+    public KeysetPage<TicketDto> getAllByPersonId(@PathVariable("personId") long id, @RequestParam String cursor, @PageableDefault Pageable pageable, @RequestBody TicketSearchCriteria criteria){
+        return ticketService.getAllByPersonId(id, cursor, pageable, criteria);
+    }
+
+    @GetMapping(value = "/{personId}/tickets", params = {"count", "!cursor"})
+    public SlicedPage<TicketDto> getAllByPersonId(@PathVariable("personId") long id, @RequestParam CountMode count, @PageableDefault Pageable pageable, @RequestBody TicketSearchCriteria criteria){
+        return ticketService.getAllByPersonId(id, count, pageable, criteria);
+    }
 }
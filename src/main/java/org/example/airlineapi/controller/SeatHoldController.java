@@ -0,0 +1,47 @@
+package org.example.airlineapi.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.model.hold.command.CreateSeatHoldCommand;
+import org.example.airlineapi.model.hold.dto.SeatHoldDto;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
+import org.example.airlineapi.model.ticket.dto.TicketDto;
+import org.example.airlineapi.service.SeatHoldService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("api/v1/flights/{flightId}/holds")
+public class SeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public SeatHoldDto create(@PathVariable long flightId, @RequestBody @Valid CreateSeatHoldCommand command){
+        return seatHoldService.create(flightId, command);
+    }
+
+    @DeleteMapping("/{holdId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void release(@PathVariable long flightId, @PathVariable UUID holdId){
+        seatHoldService.release(flightId, holdId);
+    }
+
+    @PostMapping("/{holdId}/tickets")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TicketDto> convert(@PathVariable long flightId, @PathVariable UUID holdId,
+                                   @RequestBody @Valid CreateGroupTicketCommand command){
+        return seatHoldService.convert(flightId, holdId, command);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.airlineapi.exception;
+
+public class TooManyStreamsException extends RuntimeException{
+    public TooManyStreamsException(String message) {
+        super(message);
+    }
+}
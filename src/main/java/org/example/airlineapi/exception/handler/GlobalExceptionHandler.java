@@ -6,11 +6,15 @@ import org.example.airlineapi.exception.DeleteOptimisticLockingException;
 import org.example.airlineapi.exception.IllegalBehaviourException;
 import org.example.airlineapi.exception.OverbookingException;
 import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.PreconditionFailedException;
+import org.example.airlineapi.exception.TooManyStreamsException;
 import org.example.airlineapi.exception.UpdateOptimisticLockingException;
 import org.example.airlineapi.exception.model.BookedSeatException;
 import org.example.airlineapi.exception.model.ExceptionDto;
 import org.example.airlineapi.exception.model.ValidationExceptionDto;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -34,6 +38,18 @@ public class GlobalExceptionHandler {
         return new ExceptionDto(e.getMessage());
     }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ExceptionDto handleObjectOptimisticLockingFailureException(ObjectOptimisticLockingFailureException e) {
+        return new ExceptionDto("Data was updated by another user. Please send again your request");
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ExceptionDto handlePreconditionFailedException(PreconditionFailedException e) {
+        return new ExceptionDto(e.getMessage());
+    }
+
     @ExceptionHandler(ArgumentCannotBeNullException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ExceptionDto handleArgumentCannotBeNullException(ArgumentCannotBeNullException e) {
@@ -70,6 +86,18 @@ public class GlobalExceptionHandler {
         return new ExceptionDto(e.getMessage());
     }
 
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ExceptionDto handleCannotCreateTransactionException(CannotCreateTransactionException e) {
+        return new ExceptionDto("The service is busy. Please try again later.");
+    }
+
+    @ExceptionHandler(TooManyStreamsException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ExceptionDto handleTooManyStreamsException(TooManyStreamsException e) {
+        return new ExceptionDto(e.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public List<ValidationExceptionDto> handleValidationException(MethodArgumentNotValidException e) {
@@ -4,10 +4,22 @@ import org.example.airlineapi.model.flight.Flight;
 import org.example.airlineapi.model.flight.command.CreateFlightCommand;
 import org.example.airlineapi.model.flight.dto.FlightDto;
 import org.example.airlineapi.model.flight.dto.SimpleFlightDto;
+import org.example.airlineapi.repository.projection.Projection;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FlightMapper {
+    public static final Projection<Flight, FlightDto> DTO_PROJECTION = Projection.of(FlightDto.class,
+            (root, criteriaBuilder) -> criteriaBuilder.construct(FlightDto.class,
+                    root.get("id"),
+                    root.get("flightNumber"),
+                    root.get("origin"),
+                    root.get("destination"),
+                    root.get("departureTime"),
+                    root.get("arrivalTime"),
+                    root.get("numberOfSeats"),
+                    root.get("version")));
+
     public static Flight fromCommand(CreateFlightCommand command){
         return Flight.builder()
                 .flightNumber(command.flightNumber())
@@ -28,6 +40,7 @@ public class FlightMapper {
                 .departureTime(flight.getDepartureTime())
                 .arrivalTime(flight.getArrivalTime())
                 .numberOfSeats(flight.getNumberOfSeats())
+                .version(flight.getVersion())
                 .build();
     }
 
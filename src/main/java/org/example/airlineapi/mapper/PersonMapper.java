@@ -4,10 +4,20 @@ import org.example.airlineapi.model.person.Person;
 import org.example.airlineapi.model.person.command.CreatePersonCommand;
 import org.example.airlineapi.model.person.dto.PersonDto;
 import org.example.airlineapi.model.person.dto.SimplePersonDto;
+import org.example.airlineapi.repository.projection.Projection;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PersonMapper {
+    public static final Projection<Person, PersonDto> DTO_PROJECTION = Projection.of(PersonDto.class,
+            (root, criteriaBuilder) -> criteriaBuilder.construct(PersonDto.class,
+                    root.get("id"),
+                    root.get("firstName"),
+                    root.get("lastName"),
+                    root.get("email"),
+                    root.get("phoneNumber"),
+                    root.get("dateOfBirth"),
+                    root.get("version")));
 
     public static Person fromCommand(CreatePersonCommand command) {
         return Person.builder()
@@ -27,6 +37,7 @@ public class PersonMapper {
                 .email(person.getEmail())
                 .phoneNumber(person.getPhoneNumber())
                 .dateOfBirth(person.getDateOfBirth())
+                .version(person.getVersion())
                 .build();
     }
 
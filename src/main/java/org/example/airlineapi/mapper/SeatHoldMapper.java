@@ -0,0 +1,22 @@
+package org.example.airlineapi.mapper;
+
+import org.example.airlineapi.model.hold.dto.SeatHoldDto;
+import org.example.airlineapi.service.inventory.SeatHold;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.TreeSet;
+
+@Component
+public class SeatHoldMapper {
+
+    public static SeatHoldDto toDto(SeatHold hold) {
+        return SeatHoldDto.builder()
+                .id(hold.getId())
+                .flightId(hold.getFlightId())
+                .seatNumbers(new TreeSet<>(hold.getSeatNumbers()))
+                .expiresAt(LocalDateTime.ofInstant(hold.getExpiresAt(), ZoneId.systemDefault()))
+                .build();
+    }
+}
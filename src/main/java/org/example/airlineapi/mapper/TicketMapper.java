@@ -1,12 +1,42 @@
 package org.example.airlineapi.mapper;
 
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.flight.dto.SimpleFlightDto;
+import org.example.airlineapi.model.person.Person;
+import org.example.airlineapi.model.person.dto.SimplePersonDto;
 import org.example.airlineapi.model.ticket.Ticket;
 import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
 import org.example.airlineapi.model.ticket.dto.TicketDto;
+import org.example.airlineapi.repository.projection.Projection;
+import org.example.airlineapi.repository.projection.TicketRow;
 import org.springframework.stereotype.Component;
 
 @Component
 public class TicketMapper {
+    /**
+     * The passenger is outer joined, as a ticket need not have one.
+     */
+    public static final Projection<Ticket, TicketRow> ROW_PROJECTION = Projection.of(TicketRow.class,
+            (root, criteriaBuilder) -> {
+                Join<Ticket, Flight> flight = root.join("flight");
+                Join<Ticket, Person> person = root.join("person", JoinType.LEFT);
+                return criteriaBuilder.construct(TicketRow.class,
+                        root.get("id"),
+                        root.get("seatNumber"),
+                        root.get("ticketNumber"),
+                        root.get("price"),
+                        root.get("version"),
+                        flight.get("id"),
+                        flight.get("flightNumber"),
+                        flight.get("origin"),
+                        flight.get("destination"),
+                        flight.get("version"),
+                        person.get("firstName"),
+                        person.get("lastName"),
+                        person.get("version"));
+            });
 
     public static Ticket fromCommand(CreateTicketCommand command) {
         return Ticket.builder()
@@ -21,8 +51,38 @@ public class TicketMapper {
                 .ticketNumber(ticket.getTicketNumber())
                 .seatNumber(ticket.getSeatNumber())
                 .price(ticket.getPrice())
-                .person(PersonMapper.toSimpleDto(ticket.getPerson()))
+                .person(ticket.getPerson() == null ? null : PersonMapper.toSimpleDto(ticket.getPerson()))
                 .flight(FlightMapper.toSimpleDto(ticket.getFlight()))
+                .flightId(ticket.getFlight().getId())
+                .version(ticket.getVersion())
+                .personVersion(personVersion(ticket))
+                .flightVersion(ticket.getFlight().getVersion())
+                .build();
+    }
+
+    public static long personVersion(Ticket ticket) {
+        return ticket.getPerson() == null ? 0 : ticket.getPerson().getVersion();
+    }
+
+    public static TicketDto toDto(TicketRow row) {
+        return TicketDto.builder()
+                .id(row.id())
+                .ticketNumber(row.ticketNumber())
+                .seatNumber(row.seatNumber())
+                .price(row.price())
+                .person(row.personVersion() == null ? null : SimplePersonDto.builder()
+                        .firstName(row.firstName())
+                        .lastName(row.lastName())
+                        .build())
+                .flight(SimpleFlightDto.builder()
+                        .flightNumber(row.flightNumber())
+                        .origin(row.origin())
+                        .destination(row.destination())
+                        .build())
+                .flightId(row.flightId())
+                .version(row.version())
+                .personVersion(row.personVersion() == null ? 0 : row.personVersion())
+                .flightVersion(row.flightVersion())
                 .build();
     }
 
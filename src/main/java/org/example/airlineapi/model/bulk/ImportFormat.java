@@ -0,0 +1,14 @@
+package org.example.airlineapi.model.bulk;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat of(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON) ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.airlineapi.model.bulk.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ImportReportDto {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<ImportRowErrorDto> errors;
+}
@@ -0,0 +1,13 @@
+package org.example.airlineapi.model.bulk.dto;
+
+import lombok.Value;
+import org.example.airlineapi.exception.model.ValidationExceptionDto;
+
+import java.util.List;
+
+@Value
+public class ImportRowErrorDto {
+    private long line;
+    private String message;
+    private List<ValidationExceptionDto> fields;
+}
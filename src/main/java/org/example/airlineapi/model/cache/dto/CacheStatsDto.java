@@ -0,0 +1,15 @@
+package org.example.airlineapi.model.cache.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class CacheStatsDto {
+    String name;
+    int size;
+    int maxEntries;
+    long hits;
+    long misses;
+    long evictions;
+}
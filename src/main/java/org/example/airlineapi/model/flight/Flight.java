@@ -1,23 +1,32 @@
 package org.example.airlineapi.model.flight;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.example.airlineapi.model.ticket.Ticket;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -25,7 +34,8 @@ import java.util.Set;
 @Builder
 public class Flight {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_seq")
+    @SequenceGenerator(name = "flight_seq", sequenceName = "flight_seq", allocationSize = 50)
     private long id;
     private String flightNumber;
     private String origin;
@@ -34,9 +44,17 @@ public class Flight {
     private LocalDateTime arrivalTime;
     private int numberOfSeats;
 
+    /**
+     * Written only by the updates in {@code FlightRepository}, so a flight from the second-level cache may hold
+     * an older count.
+     */
+    @Column(insertable = false, updatable = false)
+    private int soldSeats;
+
     @Version
     private long version;
 
-    @OneToMany(mappedBy = "flight", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @OneToMany(mappedBy = "flight", cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     private Set<Ticket> tickets;
 }
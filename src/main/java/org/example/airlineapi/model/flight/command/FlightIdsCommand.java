@@ -0,0 +1,21 @@
+package org.example.airlineapi.model.flight.command;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlightIdsCommand {
+    @NotEmpty(message = "NOT_EMPTY")
+    @Size(max = 500, message = "SIZE_EXCEEDED_{max}")
+    List<@NotNull(message = "NOT_NULL") Long> flightIds;
+}
@@ -1,5 +1,6 @@
 package org.example.airlineapi.model.flight.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Value;
 
@@ -15,4 +16,7 @@ public class FlightDto {
     LocalDateTime departureTime;
     LocalDateTime arrivalTime;
     int numberOfSeats;
+    // Sent as the ETag header instead.
+    @JsonIgnore
+    long version;
 }
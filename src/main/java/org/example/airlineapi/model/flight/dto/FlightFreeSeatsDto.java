@@ -0,0 +1,9 @@
+package org.example.airlineapi.model.flight.dto;
+
+import lombok.Value;
+
+@Value
+public class FlightFreeSeatsDto {
+    long flightId;
+    int freeSeats;
+}
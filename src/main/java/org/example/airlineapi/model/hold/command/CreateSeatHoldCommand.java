@@ -0,0 +1,22 @@
+package org.example.airlineapi.model.hold.command;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateSeatHoldCommand {
+    @NotEmpty(message = "NOT_EMPTY")
+    @Size(max = 100, message = "SIZE_EXCEEDED_{max}")
+    List<@NotNull(message = "NOT_NULL") @Positive(message = "NEGATIVE_OR_ZERO") Long> seatNumbers;
+}
@@ -0,0 +1,17 @@
+package org.example.airlineapi.model.hold.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+@Value
+@Builder
+public class SeatHoldDto {
+    private UUID id;
+    private long flightId;
+    private Set<Long> seatNumbers;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,6 @@
+package org.example.airlineapi.model.page;
+
+public enum CountMode {
+    NONE,
+    APPROXIMATE
+}
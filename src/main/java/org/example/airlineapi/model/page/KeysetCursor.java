@@ -0,0 +1,61 @@
+package org.example.airlineapi.model.page;
+
+import org.example.airlineapi.exception.IllegalBehaviourException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Position of a keyset page: its sort and the sort value and id of the last row handed out.
+ */
+public record KeysetCursor(String property, Sort.Direction direction, String value, Long id) {
+    private static final String ID = "id";
+
+    /**
+     * @param sortable non-null attributes of the entity itself; a cursor cannot seek past a null
+     */
+    public static KeysetCursor decode(String token, Sort sort, Set<String> sortable) {
+        KeysetCursor cursor;
+        if (token == null || token.isBlank()) {
+            Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(ID));
+            cursor = new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+        } else {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 4);
+                cursor = new KeysetCursor(parts[1], Sort.Direction.fromString(parts[0]), parts[3], Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalBehaviourException("Invalid cursor", e);
+            }
+        }
+
+        if (!ID.equals(cursor.property()) && !sortable.contains(cursor.property())) {
+            throw new IllegalBehaviourException(MessageFormat
+                    .format("Cannot page by property {0}", cursor.property()));
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String text = direction + ":" + property + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public KeysetCursor next(Object lastValue, long lastId) {
+        if (lastValue == null) {
+            throw new IllegalStateException(MessageFormat
+                    .format("Row {0} has no value to page by {1}", lastId, property));
+        }
+        return new KeysetCursor(property, direction, lastValue.toString(), lastId);
+    }
+
+    public boolean isFirstPage() {
+        return id == null;
+    }
+
+    public Sort sort() {
+        return ID.equals(property) ? Sort.by(direction, ID) : Sort.by(direction, property, ID);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.airlineapi.model.page;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Value
+@Builder
+public class KeysetPage<T> {
+    List<T> content;
+    int size;
+    String nextCursor;
+
+    public static <E, T> KeysetPage<T> of(List<E> rows, int size, KeysetCursor cursor, Function<E, T> mapper) {
+        List<E> page = rows.size() > size ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(page.get(size - 1));
+            nextCursor = cursor.next(last.getPropertyValue(cursor.property()), (Long) last.getPropertyValue("id"))
+                    .encode();
+        }
+
+        return KeysetPage.<T>builder()
+                .content(page.stream().map(mapper).toList())
+                .size(size)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
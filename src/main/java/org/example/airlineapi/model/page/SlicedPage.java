@@ -0,0 +1,38 @@
+package org.example.airlineapi.model.page;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Value
+@Builder
+public class SlicedPage<T> {
+    List<T> content;
+    int number;
+    int size;
+    boolean hasNext;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long approximateTotal;
+
+    public static ScrollPosition positionOf(Pageable pageable) {
+        return pageable.getOffset() == 0
+                ? ScrollPosition.offset()
+                : ScrollPosition.offset(pageable.getOffset() - 1);
+    }
+
+    public static <E, T> SlicedPage<T> of(Window<E> window, Pageable pageable, Long approximateTotal, Function<E, T> mapper) {
+        return SlicedPage.<T>builder()
+                .content(window.stream().map(mapper).toList())
+                .number(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .hasNext(window.hasNext())
+                .approximateTotal(approximateTotal)
+                .build();
+    }
+}
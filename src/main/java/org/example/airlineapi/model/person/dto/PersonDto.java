@@ -1,5 +1,6 @@
 package org.example.airlineapi.model.person.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Value;
 
@@ -14,4 +15,7 @@ public class PersonDto {
     private String email;
     private String phoneNumber;
     private LocalDate dateOfBirth;
+    // Sent as the ETag header instead.
+    @JsonIgnore
+    private long version;
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package org.example.airlineapi.model.ticket;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,14 +22,21 @@ import org.example.airlineapi.model.person.Person;
 import java.math.BigDecimal;
 
 @Entity
+@NamedEntityGraph(name = Ticket.WITH_FLIGHT_AND_PERSON, attributeNodes = {
+        @NamedAttributeNode("flight"),
+        @NamedAttributeNode("person")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class Ticket {
+    public static final String WITH_FLIGHT_AND_PERSON = "Ticket.withFlightAndPerson";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "ticket_seq", allocationSize = 50)
     private long id;
     private long seatNumber;
     private String ticketNumber;
@@ -34,11 +45,11 @@ public class Ticket {
     @Version
     private long version;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "flight_id")
     private Flight flight;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "person_id")
     private Person person;
 }
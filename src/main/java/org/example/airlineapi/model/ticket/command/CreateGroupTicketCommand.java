@@ -0,0 +1,22 @@
+package org.example.airlineapi.model.ticket.command;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateGroupTicketCommand {
+    @Valid
+    @NotEmpty(message = "NOT_EMPTY")
+    @Size(max = 100, message = "SIZE_EXCEEDED_{max}")
+    List<CreateTicketCommand> tickets;
+}
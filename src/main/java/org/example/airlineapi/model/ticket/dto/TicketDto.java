@@ -1,5 +1,6 @@
 package org.example.airlineapi.model.ticket.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Value;
 import org.example.airlineapi.model.flight.dto.SimpleFlightDto;
@@ -16,4 +17,13 @@ public class TicketDto {
     private long seatNumber;
     private String ticketNumber;
     private BigDecimal price;
+    @JsonIgnore
+    private long flightId;
+    // Sent as the ETag header instead, together with the versions of the passenger and flight shown.
+    @JsonIgnore
+    private long version;
+    @JsonIgnore
+    private long personVersion;
+    @JsonIgnore
+    private long flightVersion;
 }
@@ -1,17 +1,73 @@
 package org.example.airlineapi.repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.flight.dto.FlightFreeSeatsDto;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FlightRepository extends JpaRepository<Flight, Long>, JpaSpecificationExecutor<Flight> {
+    /**
+     * Bookings update the counter in this space only, so they evict no cached flight or query.
+     */
+    String SOLD_SEATS_SPACE = "flight_sold_seats";
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Flight> findWithLockById(long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select f.numberOfSeats from Flight f where f.id = :id")
+    Optional<Integer> findNumberOfSeatsById(@Param("id") long id);
+
+    @Query("select f.version from Flight f where f.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    /**
+     * @return 1 when the seats were counted, 0 when the flight is missing or full
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SOLD_SEATS_SPACE))
+    @Query(value = "UPDATE flight SET sold_seats = sold_seats + :count WHERE id = :id AND sold_seats + :count <= number_of_seats",
+            nativeQuery = true)
+    int incrementSoldSeats(@Param("id") long id, @Param("count") int count);
+
+    @Query("select f.soldSeats from Flight f where f.id = :id")
+    Optional<Integer> findSoldSeatsById(@Param("id") long id);
+
+    /**
+     * Not cached: bookings do not invalidate queries over the flight table.
+     */
+    @Query("select new org.example.airlineapi.model.flight.dto.FlightFreeSeatsDto(f.id, f.numberOfSeats - f.soldSeats) " +
+            "from Flight f where f.id in :ids order by f.id")
+    List<FlightFreeSeatsDto> findFreeSeatsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select f.id from Flight f where f.soldSeats <> (select count(t) from Ticket t where t.flight = f)")
+    List<Long> findIdsWithSoldSeatsMismatch();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SOLD_SEATS_SPACE))
+    @Query(value = "UPDATE flight SET sold_seats = (SELECT count(*) FROM ticket t WHERE t.flight_id = flight.id) WHERE id = :id",
+            nativeQuery = true)
+    int recountSoldSeats(@Param("id") long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select f from Flight f")
+    Stream<Flight> streamAll();
 }
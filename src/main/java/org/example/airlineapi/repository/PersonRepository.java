@@ -2,14 +2,35 @@ package org.example.airlineapi.repository;
 
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.airlineapi.model.person.Person;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Person> findWithLockById(long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Person> findAllWithLockByIdInOrderById(Collection<Long> ids);
+
+    @Query("select p.version from Person p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Person p")
+    Stream<Person> streamAll();
 }
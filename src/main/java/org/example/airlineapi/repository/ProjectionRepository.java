@@ -0,0 +1,71 @@
+package org.example.airlineapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.repository.projection.Projection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Runs the entity repositories' Specifications but selects only the columns of a {@link Projection}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProjectionRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    public <T, R> List<R> findAll(Class<T> domainClass, Specification<T> specs, Projection<T, R> projection, Pageable pageable) {
+        TypedQuery<R> query = createQuery(domainClass, specs, projection, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Must be consumed and closed inside a transaction.
+     */
+    public <T, R> Stream<R> stream(Class<T> domainClass, Specification<T> specs, Projection<T, R> projection, Sort sort) {
+        return createQuery(domainClass, specs, projection, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    public <T, R> Optional<R> findById(Class<T> domainClass, Object id, Projection<T, R> projection) {
+        Specification<T> hasId = (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+        return findAll(domainClass, hasId, projection, Pageable.unpaged()).stream().findFirst();
+    }
+
+    private <T, R> TypedQuery<R> createQuery(Class<T> domainClass, Specification<T> specs, Projection<T, R> projection, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = criteriaBuilder.createQuery(projection.type());
+        Root<T> root = query.from(domainClass);
+        query.select(projection.selection().apply(root, criteriaBuilder));
+
+        Predicate predicate = specs == null ? null : specs.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return entityManager.createQuery(query);
+    }
+}
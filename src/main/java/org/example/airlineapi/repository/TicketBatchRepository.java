@@ -0,0 +1,80 @@
+package org.example.airlineapi.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.model.ticket.Ticket;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.OptionalLong;
+
+@Repository
+@RequiredArgsConstructor
+public class TicketBatchRepository {
+    private static final String INSERT_TICKET = "INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_TICKET_WITHIN_FLIGHT = "INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id, version) " +
+            "SELECT ?, ?, ?, ?, f.id, ?, 0 FROM flight f " +
+            "WHERE f.id = ? AND ? <= f.number_of_seats";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public void insertAll(List<Ticket> tickets) {
+        tickets.forEach(ticket -> ticket.setId(nextId(ticket)));
+        jdbcTemplate.batchUpdate(INSERT_TICKET, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Ticket ticket = tickets.get(i);
+                ps.setLong(1, ticket.getId());
+                ps.setLong(2, ticket.getSeatNumber());
+                ps.setString(3, ticket.getTicketNumber());
+                ps.setBigDecimal(4, ticket.getPrice());
+                ps.setLong(5, ticket.getFlight().getId());
+                ps.setLong(6, ticket.getPerson().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return tickets.size();
+            }
+        });
+    }
+
+    /**
+     * Inserts nothing when the flight is missing or has no such seat; duplicates are left to the unique constraints.
+     *
+     * @return the ticket's id, or empty when nothing was inserted
+     */
+    public OptionalLong insertWithinFlight(Ticket ticket) {
+        long id = nextId(ticket);
+        int inserted = jdbcTemplate.update(INSERT_TICKET_WITHIN_FLIGHT,
+                id,
+                ticket.getSeatNumber(),
+                ticket.getTicketNumber(),
+                ticket.getPrice(),
+                ticket.getPerson().getId(),
+                ticket.getFlight().getId(),
+                ticket.getSeatNumber());
+
+        return inserted == 0 ? OptionalLong.empty() : OptionalLong.of(id);
+    }
+
+    /**
+     * Takes the id from Hibernate's pooled optimizer rather than drawing a whole block from the sequence.
+     */
+    private long nextId(Ticket ticket) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Ticket.class)
+                .getGenerator();
+        return ((Number) generator.generate(session, ticket, null, EventType.INSERT)).longValue();
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.airlineapi.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Repository
+public class TicketNumberCounterRepository {
+    private static final String ADVANCE_COUNTER = "UPDATE ticket_number_counter SET next_value = next_value + ? WHERE flight_id = ?";
+    private static final String FIND_NEXT_VALUE = "SELECT next_value FROM ticket_number_counter WHERE flight_id = ?";
+    private static final String INSERT_COUNTER = "INSERT INTO ticket_number_counter (flight_id, next_value) VALUES (?, ?)";
+    private static final String DELETE_COUNTER = "DELETE FROM ticket_number_counter WHERE flight_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    // A booking leases while it holds the flight row or a seat stripe; taking the lease connection from the
+    // application pool could wait on bookings queued behind that very lock.
+    private final HikariDataSource leaseDataSource;
+    private final JdbcTemplate leaseJdbcTemplate;
+    private final TransactionTemplate leaseTransaction;
+
+    public TicketNumberCounterRepository(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        leaseDataSource.setPoolName("ticket-number-leases");
+        leaseDataSource.setMaximumPoolSize(1);
+        this.leaseJdbcTemplate = new JdbcTemplate(leaseDataSource);
+        this.leaseTransaction = new TransactionTemplate(new DataSourceTransactionManager(leaseDataSource));
+        leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void create(long flightId) {
+        jdbcTemplate.update(INSERT_COUNTER, flightId, 1L);
+    }
+
+    public void createAll(List<Long> flightIds) {
+        jdbcTemplate.batchUpdate(INSERT_COUNTER, flightIds.stream()
+                .map(flightId -> new Object[]{flightId, 1L})
+                .toList());
+    }
+
+    /**
+     * @return the first number of the reserved block
+     * @throws org.springframework.dao.DuplicateKeyException when a concurrent lease created the missing counter first
+     */
+    public long leaseBlock(long flightId, int blockSize) {
+        return leaseTransaction.execute(status -> {
+            if (leaseJdbcTemplate.update(ADVANCE_COUNTER, blockSize, flightId) == 0) {
+                // Flights inserted without going through FlightService have no counter yet.
+                leaseJdbcTemplate.update(INSERT_COUNTER, flightId, 1L + blockSize);
+                return 1L;
+            }
+            return leaseJdbcTemplate.queryForObject(FIND_NEXT_VALUE, Long.class, flightId) - blockSize;
+        });
+    }
+
+    public void delete(long flightId) {
+        jdbcTemplate.update(DELETE_COUNTER, flightId);
+    }
+
+    @PreDestroy
+    void close() {
+        leaseDataSource.close();
+    }
+}
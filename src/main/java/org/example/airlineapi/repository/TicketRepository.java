@@ -1,12 +1,38 @@
 package org.example.airlineapi.repository;
 
 import org.example.airlineapi.model.ticket.Ticket;
+import org.example.airlineapi.repository.projection.TicketVersions;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
+    @EntityGraph(Ticket.WITH_FLIGHT_AND_PERSON)
+    Optional<Ticket> findWithFlightAndPersonById(long id);
+
     List<Ticket> findByPersonIdAndFlightId(long personId, long flightId);
     boolean existsBySeatNumberAndFlightId(long seatNumber, long flightId);
+    boolean existsByFlightId(long flightId);
+    boolean existsByPersonId(long personId);
+
+    @Modifying
+    @Query("delete from Ticket t where t.flight.id = :flightId")
+    int deleteAllByFlightId(@Param("flightId") long flightId);
+
+    @Query("select t.seatNumber from Ticket t where t.flight.id = :flightId")
+    List<Long> findSeatNumbersByFlightId(@Param("flightId") long flightId);
+
+    @Query("select t.person.id from Ticket t where t.flight.id = :flightId and t.person.id in :personIds")
+    List<Long> findPersonIdsByFlightIdAndPersonIdIn(@Param("flightId") long flightId, @Param("personIds") Collection<Long> personIds);
+
+    @Query("select new org.example.airlineapi.repository.projection.TicketVersions(t.version, coalesce(p.version, 0L), t.flight.version)"
+            + " from Ticket t left join t.person p where t.id = :id and t.flight.id = :flightId")
+    Optional<TicketVersions> findVersionsByIdAndFlightId(@Param("id") long id, @Param("flightId") long flightId);
 }
@@ -0,0 +1,14 @@
+package org.example.airlineapi.repository.projection;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.function.BiFunction;
+
+public record Projection<T, R>(Class<R> type, BiFunction<Root<T>, CriteriaBuilder, Selection<R>> selection) {
+
+    public static <T, R> Projection<T, R> of(Class<R> type, BiFunction<Root<T>, CriteriaBuilder, Selection<R>> selection) {
+        return new Projection<>(type, selection);
+    }
+}
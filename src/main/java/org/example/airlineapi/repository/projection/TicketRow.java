@@ -0,0 +1,8 @@
+package org.example.airlineapi.repository.projection;
+
+import java.math.BigDecimal;
+
+public record TicketRow(long id, long seatNumber, String ticketNumber, BigDecimal price, long version,
+                        long flightId, String flightNumber, String origin, String destination, long flightVersion,
+                        String firstName, String lastName, Long personVersion) {
+}
@@ -0,0 +1,4 @@
+package org.example.airlineapi.repository.projection;
+
+public record TicketVersions(long version, long personVersion, long flightVersion) {
+}
@@ -1,11 +1,12 @@
 package org.example.airlineapi.service;
 
-import jakarta.persistence.Cacheable;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import org.example.airlineapi.exception.DeleteOptimisticLockingException;
 import org.example.airlineapi.exception.IllegalBehaviourException;
 import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.PreconditionFailedException;
 import org.example.airlineapi.exception.UpdateOptimisticLockingException;
 import org.example.airlineapi.mapper.FlightMapper;
 import org.example.airlineapi.model.flight.Flight;
@@ -13,83 +14,198 @@ import org.example.airlineapi.model.flight.FlightSearchCriteria;
 import org.example.airlineapi.model.flight.command.CreateFlightCommand;
 import org.example.airlineapi.model.flight.command.UpdateFlightTimeCommand;
 import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.example.airlineapi.model.flight.dto.FlightFreeSeatsDto;
+import org.example.airlineapi.model.page.CountMode;
+import org.example.airlineapi.model.page.KeysetCursor;
+import org.example.airlineapi.model.page.KeysetPage;
+import org.example.airlineapi.model.page.SlicedPage;
 import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.repository.ProjectionRepository;
+import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.service.booking.TicketNumberAllocator;
+import org.example.airlineapi.service.cache.FlightDtoCache;
+import org.example.airlineapi.service.cache.TicketDtoCache;
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.paging.ApproximateCountCache;
+import org.example.airlineapi.service.paging.PageQueryExecutor;
+import org.example.airlineapi.service.search.FlightSearchIndex;
+import org.example.airlineapi.utils.ETags;
 import org.example.airlineapi.utils.Specification.FlightSpecs;
+import org.example.airlineapi.utils.Specification.KeysetSpecs;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.LongStream;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.example.airlineapi.mapper.FlightMapper.fromCommand;
 import static org.example.airlineapi.mapper.FlightMapper.toDto;
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
 
 @Service
 @RequiredArgsConstructor
 public class FlightService {
 
     private final FlightRepository flightRepository;
+    private final ProjectionRepository projectionRepository;
+    private final TicketRepository ticketRepository;
+    private final SeatInventory seatInventory;
+    private final SeatHoldRegistry seatHoldRegistry;
+    private final TicketNumberAllocator ticketNumberAllocator;
+    private final EntityManager entityManager;
+    private final ApproximateCountCache approximateCountCache;
+    private final PageQueryExecutor pageQueryExecutor;
+    private final FlightSearchIndex flightSearchIndex;
+    private final FlightDtoCache flightDtoCache;
+    private final TicketDtoCache ticketDtoCache;
 
     @Transactional(readOnly = true)
     public List<FlightDto> getAll() {
-        return flightRepository.findAll()
-                .stream()
-                .map(FlightMapper::toDto)
-                .toList();
+        return projectionRepository.findAll(Flight.class, null, FlightMapper.DTO_PROJECTION, Pageable.unpaged());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<FlightDto> consumer) {
+        try (Stream<Flight> flights = flightRepository.streamAll()) {
+            flights.forEach(flight -> {
+                consumer.accept(toDto(flight));
+                entityManager.detach(flight);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamSearch(Sort sort, FlightSearchCriteria criteria, Consumer<FlightDto> consumer) {
+        try (Stream<FlightDto> flights = projectionRepository.stream(Flight.class, FlightSpecs.createSpecs(criteria),
+                FlightMapper.DTO_PROJECTION, sort)) {
+            flights.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Set<Long> getFreeSeat(long id){
-        Flight flight = flightRepository.findWithLockById(id)
+        int numberOfSeats = flightRepository.findNumberOfSeatsById(id)
                 .orElseThrow(() -> new NotFoundException(MessageFormat
                         .format("Flight with id {0} not found", id)));
 
-        return LongStream.rangeClosed(1, flight.getNumberOfSeats())
-                .filter(seat -> flight.getTickets().stream().noneMatch(ticket -> ticket.getSeatNumber() == seat))
-                .boxed()
-                .collect(Collectors.toSet());
-
+        Set<Long> freeSeats = seatInventory.getFreeSeats(id, numberOfSeats);
+        freeSeats.removeAll(seatHoldRegistry.getClaimedSeats(id));
+        return freeSeats;
     }
 
     @Transactional(readOnly = true)
+    public List<FlightFreeSeatsDto> getFreeSeatCounts(List<Long> flightIds) {
+        return flightRepository.findFreeSeatsByIdIn(Set.copyOf(flightIds))
+                .stream()
+                .map(seats -> new FlightFreeSeatsDto(seats.getFlightId(), Math.max(0,
+                        seats.getFreeSeats() - seatHoldRegistry.getClaimedSeats(seats.getFlightId()).size())))
+                .toList();
+    }
+
     public Page<FlightDto> search(Pageable pageable, FlightSearchCriteria criteria) {
         Specification<Flight> specs = FlightSpecs.createSpecs(criteria);
+        Optional<Page<FlightDto>> indexed = flightSearchIndex.search(criteria, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        return query(pageable, specs);
+    }
+
+    private Page<FlightDto> query(Pageable pageable, Specification<Flight> specs) {
         PageRequest pageRequest = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
-        return flightRepository.findAll(specs, pageRequest)
-                .map(FlightMapper::toDto);
+        return pageQueryExecutor.findAll(flightRepository, specs, pageRequest,
+                page -> projectionRepository.findAll(Flight.class, specs, FlightMapper.DTO_PROJECTION, page));
     }
 
     @Transactional(readOnly = true)
+    public SlicedPage<FlightDto> search(CountMode count, Pageable pageable, FlightSearchCriteria criteria) {
+        Specification<Flight> specs = FlightSpecs.createSpecs(criteria);
+        Window<Flight> flights = flightRepository.findBy(specs, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(SlicedPage.positionOf(pageable)));
+
+        Long total = count == CountMode.APPROXIMATE
+                ? approximateCountCache.count(List.of(Flight.class, criteria), () -> flightRepository.count(specs))
+                : null;
+        return SlicedPage.of(flights, pageable, total, FlightMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<FlightDto> search(String cursor, Pageable pageable, FlightSearchCriteria criteria) {
+        KeysetCursor position = KeysetCursor.decode(cursor, pageable.getSort(), FlightSpecs.SORTABLE);
+        Specification<Flight> specs = FlightSpecs.createSpecs(criteria).and(KeysetSpecs.after(position));
+
+        List<Flight> flights = flightRepository.findBy(specs, query -> query
+                .sortBy(position.sort())
+                .limit(pageable.getPageSize() + 1)
+                .all());
+        return KeysetPage.of(flights, pageable.getPageSize(), position, FlightMapper::toDto);
+    }
+
     public FlightDto getById(long id) {
-        return flightRepository.findById(id)
-                .map(FlightMapper::toDto)
+        return flightDtoCache.get(id, this::load);
+    }
+
+    public long getVersion(long id) {
+        FlightDto cached = flightDtoCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return flightRepository.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Flight with id {0} not found", id)));
+    }
+
+    private FlightDto load(long id) {
+        return projectionRepository.findById(Flight.class, id, FlightMapper.DTO_PROJECTION)
                 .orElseThrow(() -> new NotFoundException(MessageFormat
                         .format("Flight with id {0} not found", id)));
     }
 
     @Transactional
     public FlightDto create(CreateFlightCommand command) {
-        Flight flight = fromCommand(command);
-        return toDto(flightRepository.save(flight));
+        Flight flight = flightRepository.save(fromCommand(command));
+        ticketNumberAllocator.register(flight.getId());
+        FlightDto flightDto = toDto(flight);
+        flightSearchIndex.putAfterCommit(flightDto);
+        return flightDto;
+    }
+
+    @Transactional
+    public void createAll(List<CreateFlightCommand> commands) {
+        List<Flight> flights = flightRepository.saveAll(commands.stream()
+                .map(FlightMapper::fromCommand)
+                .toList());
+        ticketNumberAllocator.registerAll(flights.stream()
+                .map(Flight::getId)
+                .toList());
+        flightSearchIndex.putAllAfterCommit(flights.stream()
+                .map(FlightMapper::toDto)
+                .toList());
     }
 
     @Transactional
-    public FlightDto update(long id, CreateFlightCommand command) {
+    public FlightDto update(long id, Set<String> ifMatch, CreateFlightCommand command) {
         try {
+            requireVersion(id, ifMatch);
             Flight flight = flightRepository.findById(id)
                     .orElseThrow(() -> new NotFoundException(MessageFormat
                             .format("Flight with id {0} not found", id)));
+            requireVersion(id, ifMatch, flight.getVersion());
 
-            if(!flight.getTickets().isEmpty()){
+            if(ticketRepository.existsByFlightId(id)){
                 throw new IllegalBehaviourException(MessageFormat
                         .format("Flight with id {0} has tickets. Cannot update flight with sold ticket.", id));
             }
@@ -100,7 +216,13 @@ public class FlightService {
             flight.setDepartureTime(command.departureTime());
             flight.setArrivalTime(command.arrivalTime());
             flight.setNumberOfSeats(command.availableSeats());
-            return toDto(flight);
+            seatInventory.evictAfterCommit(id);
+            // Increments the version before it is mapped into the new ETag.
+            entityManager.flush();
+            FlightDto flightDto = toDto(flight);
+            flightSearchIndex.putAfterCommit(flightDto);
+            flightDtoCache.invalidateAfterCommit(id);
+            return flightDto;
         } catch (OptimisticLockException e) {
             throw new UpdateOptimisticLockingException(MessageFormat
                     .format("Flight with id {0} was updated by another user. Please send again your request", id));
@@ -108,28 +230,73 @@ public class FlightService {
     }
 
     @Transactional
-    public FlightDto updateTime(long id, UpdateFlightTimeCommand command){
-        Flight flight = flightRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException(MessageFormat
-                        .format("Flight with id {0} not found", id)));
+    public FlightDto updateTime(long id, Set<String> ifMatch, UpdateFlightTimeCommand command){
+        try {
+            requireVersion(id, ifMatch);
+            Flight flight = flightRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException(MessageFormat
+                            .format("Flight with id {0} not found", id)));
+            requireVersion(id, ifMatch, flight.getVersion());
 
-        flight.setDepartureTime(command.getDepartureTime());
-        flight.setArrivalTime(command.getArrivalTime());
+            flight.setDepartureTime(command.getDepartureTime());
+            flight.setArrivalTime(command.getArrivalTime());
+            entityManager.flush();
 
-        return toDto(flight);
+            FlightDto flightDto = toDto(flight);
+            flightSearchIndex.putAfterCommit(flightDto);
+            flightDtoCache.invalidateAfterCommit(id);
+            // The flight's version is part of every ticket ETag on it.
+            ticketDtoCache.invalidateAllAfterCommit();
+            return flightDto;
+        } catch (OptimisticLockException e) {
+            throw new UpdateOptimisticLockingException(MessageFormat
+                    .format("Flight with id {0} was updated by another user. Please send again your request", id));
+        }
+    }
+
+    private void requireVersion(long id, Set<String> ifMatch) {
+        if (ifMatch != null) {
+            requireVersion(id, ifMatch, flightRepository.findVersionById(id)
+                    .orElseThrow(() -> new NotFoundException(MessageFormat
+                            .format("Flight with id {0} not found", id))));
+        }
     }
 
+    private static void requireVersion(long id, Set<String> ifMatch, long version) {
+        if (!ETags.matches(ifMatch, version)) {
+            throw new PreconditionFailedException(MessageFormat
+                    .format("Flight with id {0} was updated by another user. Please refresh and try again.", id));
+        }
+    }
+
+    /**
+     * Locks the flight row first, like a booking, so the two never interleave.
+     */
     @Transactional
     public void delete(long id) {
         try {
-            Flight flight = flightRepository.findById(id)
+            Flight flight = flightRepository.findWithLockById(id)
                     .orElseThrow(() -> new NotFoundException(MessageFormat
                             .format("Flight with id {0} not found", id)));
 
+            ticketRepository.deleteAllByFlightId(id);
             flightRepository.delete(flight);
+            seatInventory.evictAfterCommit(id);
+            afterCommit(() -> seatHoldRegistry.releaseAll(id));
+            ticketNumberAllocator.forget(id);
+            flightSearchIndex.removeAfterCommit(id);
+            flightDtoCache.invalidateAfterCommit(id);
+            // The flight's tickets go with it.
+            ticketDtoCache.invalidateAllAfterCommit();
         } catch (OptimisticLockException e) {
             throw new DeleteOptimisticLockingException(MessageFormat
                     .format("Flight with id {0} was updated by another user. Please send again your request", id));
         }
     }
+
+    @Transactional
+    public void recountSoldSeats(long id) {
+        flightRepository.findWithLockById(id)
+                .ifPresent(flight -> flightRepository.recountSoldSeats(id));
+    }
 }
@@ -1,39 +1,80 @@
 package org.example.airlineapi.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import org.example.airlineapi.exception.DeleteOptimisticLockingException;
 import org.example.airlineapi.exception.IllegalBehaviourException;
 import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.PreconditionFailedException;
 import org.example.airlineapi.exception.UpdateOptimisticLockingException;
 import org.example.airlineapi.mapper.PersonMapper;
+import org.example.airlineapi.model.page.CountMode;
+import org.example.airlineapi.model.page.KeysetCursor;
+import org.example.airlineapi.model.page.KeysetPage;
+import org.example.airlineapi.model.page.SlicedPage;
 import org.example.airlineapi.model.person.Person;
 import org.example.airlineapi.model.person.PersonSearchCriteria;
 import org.example.airlineapi.model.person.command.CreatePersonCommand;
 import org.example.airlineapi.model.person.dto.PersonDto;
 import org.example.airlineapi.repository.PersonRepository;
+import org.example.airlineapi.repository.ProjectionRepository;
+import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.service.cache.PersonDtoCache;
+import org.example.airlineapi.service.cache.TicketDtoCache;
+import org.example.airlineapi.service.paging.ApproximateCountCache;
+import org.example.airlineapi.service.paging.PageQueryExecutor;
+import org.example.airlineapi.utils.ETags;
+import org.example.airlineapi.utils.Specification.KeysetSpecs;
 import org.example.airlineapi.utils.Specification.PersonSpecs;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PersonService {
     private final PersonRepository personRepository;
+    private final ProjectionRepository projectionRepository;
+    private final TicketRepository ticketRepository;
+    private final EntityManager entityManager;
+    private final ApproximateCountCache approximateCountCache;
+    private final PageQueryExecutor pageQueryExecutor;
+    private final PersonDtoCache personDtoCache;
+    private final TicketDtoCache ticketDtoCache;
 
     @Transactional(readOnly = true)
     public List<PersonDto> getAll() {
-        return personRepository.findAll()
-                .stream()
-                .map(PersonMapper::toDto)
-                .toList();
+        return projectionRepository.findAll(Person.class, null, PersonMapper.DTO_PROJECTION, Pageable.unpaged());
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PersonDto> consumer) {
+        try (Stream<Person> persons = personRepository.streamAll()) {
+            persons.forEach(person -> {
+                consumer.accept(PersonMapper.toDto(person));
+                entityManager.detach(person);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamSearch(Sort sort, PersonSearchCriteria criteria, Consumer<PersonDto> consumer) {
+        try (Stream<PersonDto> persons = projectionRepository.stream(Person.class, PersonSpecs.createSpecs(criteria),
+                PersonMapper.DTO_PROJECTION, sort)) {
+            persons.forEach(consumer);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -41,14 +82,52 @@ public class PersonService {
         Specification<Person> specs = PersonSpecs.createSpecs(criteria);
         PageRequest pageRequest = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
 
-        return personRepository.findAll(specs, pageRequest)
-                .map(PersonMapper::toDto);
+        return pageQueryExecutor.findAll(personRepository, specs, pageRequest,
+                page -> projectionRepository.findAll(Person.class, specs, PersonMapper.DTO_PROJECTION, page));
     }
 
     @Transactional(readOnly = true)
+    public SlicedPage<PersonDto> search(CountMode count, Pageable pageable, PersonSearchCriteria criteria) {
+        Specification<Person> specs = PersonSpecs.createSpecs(criteria);
+        Window<Person> persons = personRepository.findBy(specs, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(SlicedPage.positionOf(pageable)));
+
+        Long total = count == CountMode.APPROXIMATE
+                ? approximateCountCache.count(List.of(Person.class, criteria), () -> personRepository.count(specs))
+                : null;
+        return SlicedPage.of(persons, pageable, total, PersonMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<PersonDto> search(String cursor, Pageable pageable, PersonSearchCriteria criteria) {
+        KeysetCursor position = KeysetCursor.decode(cursor, pageable.getSort(), PersonSpecs.SORTABLE);
+        Specification<Person> specs = PersonSpecs.createSpecs(criteria).and(KeysetSpecs.after(position));
+
+        List<Person> persons = personRepository.findBy(specs, query -> query
+                .sortBy(position.sort())
+                .limit(pageable.getPageSize() + 1)
+                .all());
+        return KeysetPage.of(persons, pageable.getPageSize(), position, PersonMapper::toDto);
+    }
+
     public PersonDto getById(long id) {
-        return personRepository.findById(id)
-                .map(PersonMapper::toDto)
+        return personDtoCache.get(id, this::load);
+    }
+
+    public long getVersion(long id) {
+        PersonDto cached = personDtoCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return personRepository.findVersionById(id)
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Person with id {0} not found", id)));
+    }
+
+    private PersonDto load(long id) {
+        return projectionRepository.findById(Person.class, id, PersonMapper.DTO_PROJECTION)
                 .orElseThrow(() -> new NotFoundException(MessageFormat
                         .format("Person with id {0} not found", id)));
     }
@@ -67,15 +146,28 @@ public class PersonService {
     }
 
     @Transactional
-    public PersonDto update(long id, CreatePersonCommand command) {
+    public void createAll(List<CreatePersonCommand> commands) {
+        personRepository.saveAll(commands.stream()
+                .map(PersonMapper::fromCommand)
+                .toList());
+    }
+
+    @Transactional
+    public PersonDto update(long id, Set<String> ifMatch, CreatePersonCommand command) {
         try {
+            requireVersion(id, ifMatch);
             Person person = personRepository.findById(id)
                     .orElseThrow(() -> new NotFoundException("Person with id " + id + " not found"));
+            requireVersion(id, ifMatch, person.getVersion());
             person.setFirstName(command.getFirstName());
             person.setLastName(command.getLastName());
             person.setEmail(command.getEmail());
             person.setPhoneNumber(command.getPhoneNumber());
             person.setDateOfBirth(command.getDateOfBirth());
+            // Increments the version before it is mapped into the new ETag.
+            entityManager.flush();
+            personDtoCache.invalidateAfterCommit(id);
+            ticketDtoCache.invalidateAllAfterCommit();
             return PersonMapper.toDto(person);
         }catch (OptimisticLockException e){
             throw new UpdateOptimisticLockingException(MessageFormat
@@ -83,18 +175,33 @@ public class PersonService {
         }
     }
 
+    private void requireVersion(long id, Set<String> ifMatch) {
+        if (ifMatch != null) {
+            requireVersion(id, ifMatch, personRepository.findVersionById(id)
+                    .orElseThrow(() -> new NotFoundException("Person with id " + id + " not found")));
+        }
+    }
+
+    private static void requireVersion(long id, Set<String> ifMatch, long version) {
+        if (!ETags.matches(ifMatch, version)) {
+            throw new PreconditionFailedException(MessageFormat
+                    .format("Person with id {0} was updated by another user. Please refresh and try again.", id));
+        }
+    }
+
     @Transactional
     public void delete(long id) {
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Person with id " + id + " not found"));
 
-        if(person.getTicket() != null && !person.getTicket().isEmpty()){
+        if(ticketRepository.existsByPersonId(id)){
             throw new IllegalBehaviourException(MessageFormat
                     .format("Person with id {0} has tickets. Please delete tickets first.", id));
         }
 
         try {
             personRepository.delete(person);
+            personDtoCache.invalidateAfterCommit(id);
         } catch (OptimisticLockException e){
             throw new DeleteOptimisticLockingException(MessageFormat
                     .format("Person with id {0} was updated by another user. Please refresh and try again.", id));
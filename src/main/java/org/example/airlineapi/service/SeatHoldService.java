@@ -0,0 +1,99 @@
+package org.example.airlineapi.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.exception.IllegalBehaviourException;
+import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.OverbookingException;
+import org.example.airlineapi.exception.model.BookedSeatException;
+import org.example.airlineapi.mapper.SeatHoldMapper;
+import org.example.airlineapi.model.hold.command.CreateSeatHoldCommand;
+import org.example.airlineapi.model.hold.dto.SeatHoldDto;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
+import org.example.airlineapi.model.ticket.dto.TicketDto;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.inventory.SeatHold;
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.MessageFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
+import static org.example.airlineapi.utils.TransactionCallbacks.afterRollback;
+
+@Service
+@RequiredArgsConstructor
+public class SeatHoldService {
+
+    private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final SeatHoldRegistry seatHoldRegistry;
+    private final TicketService ticketService;
+
+    @Transactional(readOnly = true)
+    public SeatHoldDto create(long flightId, CreateSeatHoldCommand command) {
+        int numberOfSeats = flightRepository.findNumberOfSeatsById(flightId)
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Flight with id {0} not found", flightId)));
+
+        Set<Long> seatNumbers = new LinkedHashSet<>(command.getSeatNumbers());
+        for (Long seatNumber : seatNumbers) {
+            if(seatNumber > numberOfSeats){
+                throw new OverbookingException(MessageFormat
+                        .format("Flight with id {0} has no seat number {1}", flightId, seatNumber));
+            }
+        }
+
+        // Claim first and look at sold seats second: a booking that commits concurrently either already
+        // shows up in the inventory or was holding its own claim, which made ours fail.
+        SeatHold hold = seatHoldRegistry.hold(flightId, seatNumbers);
+        for (Long seatNumber : seatNumbers) {
+            if(seatInventory.isOccupied(flightId, numberOfSeats, seatNumber)){
+                seatHoldRegistry.release(hold);
+                throw new BookedSeatException(MessageFormat
+                        .format("Flight with id {0} already has a ticket with seat number {1}", flightId, seatNumber));
+            }
+        }
+
+        return SeatHoldMapper.toDto(hold);
+    }
+
+    public void release(long flightId, UUID holdId) {
+        if(!seatHoldRegistry.release(getHold(flightId, holdId))){
+            throw new IllegalBehaviourException(MessageFormat
+                    .format("Seat hold {0} is being converted into tickets", holdId));
+        }
+    }
+
+    @Transactional
+    public List<TicketDto> convert(long flightId, UUID holdId, CreateGroupTicketCommand command) {
+        SeatHold hold = getHold(flightId, holdId);
+
+        Set<Long> seatNumbers = new LinkedHashSet<>();
+        command.getTickets().forEach(ticket -> seatNumbers.add(ticket.getSeatNumber()));
+        if(seatNumbers.size() != command.getTickets().size() || !seatNumbers.equals(hold.getSeatNumbers())){
+            throw new IllegalBehaviourException(MessageFormat
+                    .format("Tickets must cover exactly the seats of seat hold {0}", holdId));
+        }
+
+        if(!seatHoldRegistry.beginConversion(hold)){
+            throw new IllegalBehaviourException(MessageFormat
+                    .format("Seat hold {0} has expired or is already being converted", holdId));
+        }
+        afterRollback(() -> seatHoldRegistry.abortConversion(hold));
+        afterCommit(() -> seatHoldRegistry.completeConversion(hold));
+
+        return ticketService.createFromHold(flightId, command.getTickets());
+    }
+
+    private SeatHold getHold(long flightId, UUID holdId) {
+        return seatHoldRegistry.find(flightId, holdId)
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Seat hold with id {0} not found for flight with id {1}", holdId, flightId)));
+    }
+}
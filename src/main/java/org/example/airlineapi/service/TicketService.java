@@ -1,42 +1,92 @@
 package org.example.airlineapi.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.config.BookingMode;
+import org.example.airlineapi.config.BookingProperties;
 import org.example.airlineapi.exception.AlreadyHaveTicketException;
 import org.example.airlineapi.exception.ArgumentCannotBeNullException;
 import org.example.airlineapi.exception.NotFoundException;
 import org.example.airlineapi.exception.OverbookingException;
+import org.example.airlineapi.exception.PreconditionFailedException;
 import org.example.airlineapi.exception.UpdateOptimisticLockingException;
 import org.example.airlineapi.exception.model.BookedSeatException;
 import org.example.airlineapi.mapper.TicketMapper;
 import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.page.CountMode;
+import org.example.airlineapi.model.page.KeysetCursor;
+import org.example.airlineapi.model.page.KeysetPage;
+import org.example.airlineapi.model.page.SlicedPage;
 import org.example.airlineapi.model.person.Person;
 import org.example.airlineapi.model.ticket.Ticket;
 import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
 import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
 import org.example.airlineapi.model.ticket.command.UpdateTicketPersonCommand;
 import org.example.airlineapi.model.ticket.dto.TicketDto;
 import org.example.airlineapi.repository.FlightRepository;
 import org.example.airlineapi.repository.PersonRepository;
+import org.example.airlineapi.repository.ProjectionRepository;
+import org.example.airlineapi.repository.TicketBatchRepository;
 import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.repository.projection.TicketRow;
+import org.example.airlineapi.service.booking.SeatLockTable;
+import org.example.airlineapi.service.booking.TicketNumberAllocator;
+import org.example.airlineapi.service.booking.TicketViolations;
+import org.example.airlineapi.service.cache.TicketDtoCache;
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.inventory.SoldSeatsReconciler;
+import org.example.airlineapi.service.paging.ApproximateCountCache;
+import org.example.airlineapi.service.paging.PageQueryExecutor;
+import org.example.airlineapi.utils.ETags;
+import org.example.airlineapi.utils.Specification.KeysetSpecs;
 import org.example.airlineapi.utils.Specification.TicketSpecs;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.example.airlineapi.mapper.TicketMapper.toDto;
 
 @Service
 @RequiredArgsConstructor
 public class TicketService {
+    // Fetch-joined by the keyset pages, which map every row's passenger and flight.
+    private static final String[] MAPPED_ASSOCIATIONS = {"flight", "person"};
 
     private final TicketRepository ticketRepository;
+    private final TicketBatchRepository ticketBatchRepository;
     private final PersonRepository personRepository;
     private final FlightRepository flightRepository;
+    private final ProjectionRepository projectionRepository;
+    private final SeatInventory seatInventory;
+    private final SoldSeatsReconciler soldSeatsReconciler;
+    private final SeatLockTable seatLockTable;
+    private final SeatHoldRegistry seatHoldRegistry;
+    private final TicketNumberAllocator ticketNumberAllocator;
+    private final BookingProperties bookingProperties;
+    private final ApproximateCountCache approximateCountCache;
+    private final PageQueryExecutor pageQueryExecutor;
+    private final TicketDtoCache ticketDtoCache;
+    private final EntityManager entityManager;
 
 
     @Transactional(readOnly = true)
@@ -46,8 +96,7 @@ public class TicketService {
         }
 
         Specification<Ticket> specification = TicketSpecs.specsWithFlightId(flightId, criteria);
-        return ticketRepository.findAll(specification, pageable)
-                .map(TicketMapper::toDto);
+        return findPage(specification, pageable);
     }
 
     @Transactional(readOnly = true)
@@ -57,15 +106,126 @@ public class TicketService {
         }
 
         Specification<Ticket> specification = TicketSpecs.specsWithPersonId(personId, criteria);
-        return ticketRepository.findAll(specification, pageable)
+        return findPage(specification, pageable);
+    }
+
+    private Page<TicketDto> findPage(Specification<Ticket> specification, Pageable pageable) {
+        return pageQueryExecutor.findAll(ticketRepository, specification, pageable,
+                        page -> projectionRepository.findAll(Ticket.class, specification, TicketMapper.ROW_PROJECTION, page))
                 .map(TicketMapper::toDto);
     }
 
+    @Transactional(readOnly = true)
+    public void streamAllByFlightId(long flightId, Sort sort, TicketSearchCriteria criteria, Consumer<TicketDto> consumer) {
+        if(criteria == null) {
+            throw new ArgumentCannotBeNullException("Ticket search criteria cannot be null");
+        }
+
+        stream(TicketSpecs.specsWithFlightId(flightId, criteria), sort, consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllByPersonId(long personId, Sort sort, TicketSearchCriteria criteria, Consumer<TicketDto> consumer) {
+        if (criteria == null) {
+            throw new ArgumentCannotBeNullException("Ticket search criteria cannot be null");
+        }
+
+        stream(TicketSpecs.specsWithPersonId(personId, criteria), sort, consumer);
+    }
+
+    private void stream(Specification<Ticket> specification, Sort sort, Consumer<TicketDto> consumer) {
+        try (Stream<TicketRow> rows = projectionRepository.stream(Ticket.class, specification, TicketMapper.ROW_PROJECTION, sort)) {
+            rows.map(TicketMapper::toDto).forEach(consumer);
+        }
+    }
+
+
+
+    @Transactional(readOnly = true)
+    public KeysetPage<TicketDto> getAllByFlightId(long flightId, String cursor, Pageable pageable, TicketSearchCriteria criteria) {
+        if(criteria == null) {
+            throw new ArgumentCannotBeNullException("Ticket search criteria cannot be null");
+        }
+
+        return findPage(TicketSpecs.specsWithFlightId(flightId, criteria), cursor, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<TicketDto> getAllByPersonId(long personId, String cursor, Pageable pageable, TicketSearchCriteria criteria) {
+        if (criteria == null) {
+            throw new ArgumentCannotBeNullException("Ticket search criteria cannot be null");
+        }
+
+        return findPage(TicketSpecs.specsWithPersonId(personId, criteria), cursor, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public SlicedPage<TicketDto> getAllByFlightId(long flightId, CountMode count, Pageable pageable, TicketSearchCriteria criteria) {
+        if(criteria == null) {
+            throw new ArgumentCannotBeNullException("Ticket search criteria cannot be null");
+        }
 
+        return findSlice(TicketSpecs.specsWithFlightId(flightId, criteria), List.of(Flight.class, flightId, criteria), count, pageable);
+    }
 
     @Transactional(readOnly = true)
+    public SlicedPage<TicketDto> getAllByPersonId(long personId, CountMode count, Pageable pageable, TicketSearchCriteria criteria) {
+        if (criteria == null) {
+            throw new ArgumentCannotBeNullException("Ticket search criteria cannot be null");
+        }
+
+        return findSlice(TicketSpecs.specsWithPersonId(personId, criteria), List.of(Person.class, personId, criteria), count, pageable);
+    }
+
+    private SlicedPage<TicketDto> findSlice(Specification<Ticket> specification, Object countKey, CountMode count, Pageable pageable) {
+        // Offset scrolling ignores project(); the passengers and flights are batch-fetched instead, one statement each.
+        Window<Ticket> tickets = ticketRepository.findBy(specification, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(SlicedPage.positionOf(pageable)));
+
+        Long total = count == CountMode.APPROXIMATE
+                ? approximateCountCache.count(countKey, () -> ticketRepository.count(specification))
+                : null;
+        return SlicedPage.of(tickets, pageable, total, TicketMapper::toDto);
+    }
+
+    private KeysetPage<TicketDto> findPage(Specification<Ticket> specification, String cursor, Pageable pageable) {
+        KeysetCursor position = KeysetCursor.decode(cursor, pageable.getSort(), TicketSpecs.SORTABLE);
+        List<Ticket> tickets = ticketRepository.findBy(specification.and(KeysetSpecs.after(position)), query -> query
+                .project(MAPPED_ASSOCIATIONS)
+                .sortBy(position.sort())
+                .limit(pageable.getPageSize() + 1)
+                .all());
+        return KeysetPage.of(tickets, pageable.getPageSize(), position, TicketMapper::toDto);
+    }
+
     public TicketDto getById(long id) {
-        return ticketRepository.findById(id)
+        return ticketDtoCache.get(id, this::load);
+    }
+
+    public TicketDto getById(long flightId, long id) {
+        TicketDto ticket = getById(id);
+        if (ticket.getFlightId() != flightId) {
+            throw new NotFoundException(MessageFormat
+                    .format("Ticket with id {0} not found", id));
+        }
+        return ticket;
+    }
+
+    public String getETag(long flightId, long id) {
+        TicketDto cached = ticketDtoCache.getIfPresent(id);
+        if (cached != null && cached.getFlightId() == flightId) {
+            return ETags.of(cached.getVersion(), cached.getPersonVersion(), cached.getFlightVersion());
+        }
+        return ticketRepository.findVersionsByIdAndFlightId(id, flightId)
+                .map(versions -> ETags.of(versions.version(), versions.personVersion(), versions.flightVersion()))
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Ticket with id {0} not found", id)));
+    }
+
+    private TicketDto load(long id) {
+        return projectionRepository.findById(Ticket.class, id, TicketMapper.ROW_PROJECTION)
                 .map(TicketMapper::toDto)
                 .orElseThrow(() -> new NotFoundException(MessageFormat
                         .format("Ticket with id {0} not found", id)));
@@ -73,25 +233,74 @@ public class TicketService {
 
     @Transactional
     public TicketDto create(long flightId, CreateTicketCommand command) {
+        seatHoldRegistry.claimForBookingUntilCompletion(flightId, command.getSeatNumber());
+
+        return switch (bookingProperties.getMode()) {
+            case ROW_LOCK -> createWithRowLocks(flightId, command);
+            case SEAT_STRIPED -> createWithSeatLocks(flightId, command);
+            case CONSTRAINT -> createWithConstraints(flightId, command);
+        };
+    }
+
+    private TicketDto createWithRowLocks(long flightId, CreateTicketCommand command) {
         Ticket ticket = TicketMapper.fromCommand(command);
 
         Flight flight = flightRepository.findWithLockById(flightId)
                 .orElseThrow(() -> new NotFoundException(MessageFormat
                         .format("Flight with id {0} not found", flightId)));
 
-        int bookedTicket = flight.getTickets().size();
+        if(command.getSeatNumber() > flight.getNumberOfSeats()){
+            throw new OverbookingException(MessageFormat
+                    .format("Flight with id {0} has no seat number {1}", flightId, command.getSeatNumber()));
+        }
 
         if(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId )){
             throw new BookedSeatException(MessageFormat
                     .format("Flight with id {0} already has a ticket with seat number {1}", flightId, command.getSeatNumber()));
         }
 
-        if(bookedTicket >= flight.getNumberOfSeats()){
+        countSoldSeat(flightId);
+
+        Person person = personRepository.findWithLockById(command.getPersonId())
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Person with id {0} not found", command.getPersonId())));
+
+        if(!ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), flightId).isEmpty()){
+            throw new AlreadyHaveTicketException(MessageFormat
+                    .format("Person with id {0} already has a ticket for flight with id {1}", command.getPersonId(), flightId));
+        }
+
+        ticket.setTicketNumber(ticketNumberAllocator.nextTicketNumber(flightId, flight.getFlightNumber()));
+        ticket.setFlight(flight);
+        ticket.setPerson(person);
+
+        TicketDto ticketDto = toDto(ticketRepository.save(ticket));
+        seatInventory.occupyAfterCommit(flightId, command.getSeatNumber());
+        return ticketDto;
+    }
+
+    private TicketDto createWithSeatLocks(long flightId, CreateTicketCommand command) {
+        // Seat numbers are unique per flight and bounded by the number of seats, which already rules out
+        // overbooking here; the flight row is only recounted after commit.
+        seatLockTable.lockSeatAndPassengerUntilCompletion(flightId, command.getSeatNumber(), command.getPersonId());
+
+        Ticket ticket = TicketMapper.fromCommand(command);
+
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Flight with id {0} not found", flightId)));
+
+        if(command.getSeatNumber() > flight.getNumberOfSeats()){
             throw new OverbookingException(MessageFormat
-                    .format("Flight with id {0} has no available seats", flightId));
+                    .format("Flight with id {0} has no seat number {1}", flightId, command.getSeatNumber()));
         }
 
-        Person person = personRepository.findWithLockById(command.getPersonId())
+        if(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)){
+            throw new BookedSeatException(MessageFormat
+                    .format("Flight with id {0} already has a ticket with seat number {1}", flightId, command.getSeatNumber()));
+        }
+
+        Person person = personRepository.findById(command.getPersonId())
                 .orElseThrow(() -> new NotFoundException(MessageFormat
                         .format("Person with id {0} not found", command.getPersonId())));
 
@@ -100,19 +309,172 @@ public class TicketService {
                     .format("Person with id {0} already has a ticket for flight with id {1}", command.getPersonId(), flightId));
         }
 
-        ticket.setTicketNumber(MessageFormat.format("{0}-{1}", flight.getFlightNumber(), bookedTicket + 1));
+        soldSeatsReconciler.recountAfterCommit(flightId);
+
+        ticket.setTicketNumber(ticketNumberAllocator.nextTicketNumber(flightId, flight.getFlightNumber()));
+        ticket.setFlight(flight);
+        ticket.setPerson(person);
+
+        TicketDto ticketDto = toDto(ticketRepository.save(ticket));
+        seatInventory.occupyAfterCommit(flightId, command.getSeatNumber());
+        return ticketDto;
+    }
+
+    private TicketDto createWithConstraints(long flightId, CreateTicketCommand command) {
+        // Plain reads, answered by the second-level cache when it is enabled; the insert is the only statement
+        // that touches a row, and the counter is recounted after commit rather than locked here.
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Flight with id {0} not found", flightId)));
+        Person person = personRepository.findById(command.getPersonId())
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Person with id {0} not found", command.getPersonId())));
+
+        Ticket ticket = TicketMapper.fromCommand(command);
+        ticket.setTicketNumber(ticketNumberAllocator.nextTicketNumber(flightId, flight.getFlightNumber()));
         ticket.setFlight(flight);
         ticket.setPerson(person);
+        try {
+            ticket.setId(ticketBatchRepository.insertWithinFlight(ticket)
+                    .orElseThrow(() -> new OverbookingException(MessageFormat
+                            .format("Flight with id {0} has no seat number {1}", flightId, command.getSeatNumber()))));
+        } catch (DataIntegrityViolationException e) {
+            seatInventory.evict(flightId);
+            throw TicketViolations.translate(e, flightId, List.of(command.getSeatNumber()), List.of(command.getPersonId()));
+        }
+
+        soldSeatsReconciler.recountAfterCommit(flightId);
+        seatInventory.occupyAfterCommit(flightId, command.getSeatNumber());
+        return toDto(ticket);
+    }
 
-        return toDto(ticketRepository.save(ticket));
+    private void countSoldSeat(long flightId) {
+        if(flightRepository.incrementSoldSeats(flightId, 1) == 0){
+            throw new OverbookingException(MessageFormat
+                    .format("Flight with id {0} has no available seats", flightId));
+        }
+    }
+
+    @Transactional
+    public List<TicketDto> createAll(long flightId, CreateGroupTicketCommand command) {
+        return createGroup(flightId, command.getTickets(), false);
     }
 
+    /**
+     * The hold keeps the seats away from every other booking, so only the passengers are locked.
+     */
     @Transactional
-    public TicketDto updatePerson(long flightId, long ticketId, UpdateTicketPersonCommand command) {
+    public List<TicketDto> createFromHold(long flightId, List<CreateTicketCommand> commands) {
+        return createGroup(flightId, commands, true);
+    }
+
+    private List<TicketDto> createGroup(long flightId, List<CreateTicketCommand> commands, boolean seatsHeld) {
+        Set<Long> seatNumbers = new LinkedHashSet<>();
+        Set<Long> personIds = new LinkedHashSet<>();
+        for (CreateTicketCommand ticketCommand : commands) {
+            if(!seatNumbers.add(ticketCommand.getSeatNumber())){
+                throw new BookedSeatException(MessageFormat
+                        .format("Group booking contains seat number {0} more than once", ticketCommand.getSeatNumber()));
+            }
+            if(!personIds.add(ticketCommand.getPersonId())){
+                throw new AlreadyHaveTicketException(MessageFormat
+                        .format("Group booking contains person with id {0} more than once", ticketCommand.getPersonId()));
+            }
+        }
+
+        if(!seatsHeld){
+            seatNumbers.forEach(seatNumber -> seatHoldRegistry.claimForBookingUntilCompletion(flightId, seatNumber));
+        }
+
+        boolean seatStriped = bookingProperties.getMode() == BookingMode.SEAT_STRIPED;
+        if(seatStriped){
+            seatLockTable.lockAllUntilCompletion(flightId, seatsHeld ? List.of() : seatNumbers, personIds);
+        }
+
+        Flight flight = (seatStriped ? flightRepository.findById(flightId) : flightRepository.findWithLockById(flightId))
+                .orElseThrow(() -> new NotFoundException(MessageFormat
+                        .format("Flight with id {0} not found", flightId)));
+
+        for (Long seatNumber : seatNumbers) {
+            if(seatNumber > flight.getNumberOfSeats()){
+                throw new OverbookingException(MessageFormat
+                        .format("Flight with id {0} has no seat number {1}", flightId, seatNumber));
+            }
+        }
+
+        Set<Long> occupiedSeats = new HashSet<>(ticketRepository.findSeatNumbersByFlightId(flightId));
+
+        if(!seatsHeld){
+            for (Long seatNumber : seatNumbers) {
+                if(occupiedSeats.contains(seatNumber)){
+                    throw new BookedSeatException(MessageFormat
+                            .format("Flight with id {0} already has a ticket with seat number {1}", flightId, seatNumber));
+                }
+            }
+        }
+
+        Map<Long, Person> persons = (seatStriped ? personRepository.findAllById(personIds) : personRepository.findAllWithLockByIdInOrderById(personIds))
+                .stream()
+                .collect(Collectors.toMap(Person::getId, Function.identity()));
+
+        for (Long personId : personIds) {
+            if(!persons.containsKey(personId)){
+                throw new NotFoundException(MessageFormat
+                        .format("Person with id {0} not found", personId));
+            }
+        }
+
+        List<Long> passengers = ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(flightId, personIds);
+        if(!passengers.isEmpty()){
+            throw new AlreadyHaveTicketException(MessageFormat
+                    .format("Person with id {0} already has a ticket for flight with id {1}", passengers.get(0), flightId));
+        }
+
+        if(seatStriped){
+            soldSeatsReconciler.recountAfterCommit(flightId);
+        } else if(flightRepository.incrementSoldSeats(flightId, commands.size()) == 0){
+            int soldSeats = flightRepository.findSoldSeatsById(flightId).orElse(flight.getNumberOfSeats());
+            throw new OverbookingException(MessageFormat
+                    .format("Flight with id {0} has only {1} available seats", flightId, flight.getNumberOfSeats() - soldSeats));
+        }
+
+        List<Ticket> tickets = new ArrayList<>(commands.size());
+        for (CreateTicketCommand ticketCommand : commands) {
+            Ticket ticket = TicketMapper.fromCommand(ticketCommand);
+            ticket.setTicketNumber(ticketNumberAllocator.nextTicketNumber(flightId, flight.getFlightNumber()));
+            ticket.setFlight(flight);
+            ticket.setPerson(persons.get(ticketCommand.getPersonId()));
+            tickets.add(ticket);
+        }
+
         try {
-            Ticket ticket = ticketRepository.findById(ticketId)
+            ticketBatchRepository.insertAll(tickets);
+        } catch (DataIntegrityViolationException e) {
+            // Only reachable when CONSTRAINT-mode bookings, which take no locks, race with this group.
+            seatInventory.evict(flightId);
+            throw TicketViolations.translate(e, flightId, seatNumbers, personIds);
+        }
+        seatNumbers.forEach(seatNumber -> seatInventory.occupyAfterCommit(flightId, seatNumber));
+
+        return tickets.stream()
+                .map(TicketMapper::toDto)
+                .toList();
+    }
+
+    @Transactional
+    public TicketDto updatePerson(long flightId, long ticketId, Set<String> ifMatch, UpdateTicketPersonCommand command) {
+        try {
+            Ticket ticket = ticketRepository.findWithFlightAndPersonById(ticketId)
                     .orElseThrow(() -> new NotFoundException(MessageFormat
                             .format("Ticket with id {0} not found", ticketId)));
+            if(!ETags.matches(ifMatch, ticket.getVersion(), TicketMapper.personVersion(ticket), ticket.getFlight().getVersion())){
+                throw new PreconditionFailedException(MessageFormat
+                        .format("Ticket with id {0} was updated by another user. Please refresh and try again.", ticketId));
+            }
+
+            if(bookingProperties.getMode() == BookingMode.SEAT_STRIPED){
+                seatLockTable.lockPassengerUntilCompletion(flightId, command.getPersonId());
+            }
 
             Person person = personRepository.findWithLockById(command.getPersonId())
                     .orElseThrow(() -> new NotFoundException(MessageFormat
@@ -124,6 +486,9 @@ public class TicketService {
             }
 
             ticket.setPerson(person);
+            // Increments the version before it is mapped into the new ETag.
+            entityManager.flush();
+            ticketDtoCache.invalidateAfterCommit(ticketId);
             return toDto(ticket);
         } catch (OptimisticLockException e) {
             throw new UpdateOptimisticLockingException(MessageFormat
@@ -0,0 +1,60 @@
+package org.example.airlineapi.service.booking;
+
+import org.example.airlineapi.config.BookingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCompletion;
+
+/**
+ * Striped locks over (flight, seat) and (flight, passenger) pairs, held until the transaction completes.
+ */
+@Component
+public class SeatLockTable {
+
+    private final ReentrantLock[] stripes;
+
+    public SeatLockTable(BookingProperties properties) {
+        int size = Integer.highestOneBit(Math.max(1, properties.getLockStripes() - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockSeatAndPassengerUntilCompletion(long flightId, long seatNumber, long personId) {
+        lockAllUntilCompletion(flightId, List.of(seatNumber), List.of(personId));
+    }
+
+    public void lockAllUntilCompletion(long flightId, Collection<Long> seatNumbers, Collection<Long> personIds) {
+        SortedSet<Integer> indexes = new TreeSet<>();
+        seatNumbers.forEach(seatNumber -> indexes.add(stripeIndex(flightId, seatNumber, 'S')));
+        personIds.forEach(personId -> indexes.add(stripeIndex(flightId, personId, 'P')));
+
+        // Stripes are always taken in index order, so two bookings can never wait on each other.
+        indexes.forEach(this::lockUntilCompletion);
+    }
+
+    public void lockPassengerUntilCompletion(long flightId, long personId) {
+        lockUntilCompletion(stripeIndex(flightId, personId, 'P'));
+    }
+
+    private void lockUntilCompletion(int index) {
+        ReentrantLock lock = stripes[index];
+        lock.lock();
+        afterCompletion(lock::unlock);
+    }
+
+    private int stripeIndex(long flightId, long value, char kind) {
+        long hash = flightId * 0x9E3779B97F4A7C15L + value * 31 + kind;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) (hash & (stripes.length - 1));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.airlineapi.service.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.config.TicketNumberProperties;
+import org.example.airlineapi.repository.TicketNumberCounterRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
+
+/**
+ * Hands out ticket numbers from blocks leased from {@code ticket_number_counter}. Numbers are unique across
+ * instances; numbers of rolled back bookings and unused blocks are skipped.
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketNumberAllocator {
+
+    private final TicketNumberCounterRepository ticketNumberCounterRepository;
+    private final TicketNumberProperties properties;
+
+    private final ConcurrentMap<Long, Block> blocks = new ConcurrentHashMap<>();
+
+    public long next(long flightId) {
+        Block block = blocks.computeIfAbsent(flightId, id -> new Block());
+        synchronized (block) {
+            if (block.next < block.limit) {
+                return block.next++;
+            }
+        }
+
+        int blockSize = properties.getBlockSize();
+        long first;
+        try {
+            first = ticketNumberCounterRepository.leaseBlock(flightId, blockSize);
+        } catch (DuplicateKeyException e) {
+            // Another lease created the missing counter first; now that it exists the lease is a plain update.
+            first = ticketNumberCounterRepository.leaseBlock(flightId, blockSize);
+        }
+        publish(flightId, first + 1, first + blockSize);
+        return first;
+    }
+
+    public String nextTicketNumber(long flightId, String flightNumber) {
+        return flightNumber + "-" + next(flightId);
+    }
+
+    public void register(long flightId) {
+        ticketNumberCounterRepository.create(flightId);
+    }
+
+    public void registerAll(List<Long> flightIds) {
+        ticketNumberCounterRepository.createAll(flightIds);
+    }
+
+    public void forget(long flightId) {
+        ticketNumberCounterRepository.delete(flightId);
+        afterCommit(() -> blocks.remove(flightId));
+    }
+
+    private void publish(long flightId, long next, long limit) {
+        Block block = blocks.computeIfAbsent(flightId, id -> new Block());
+        synchronized (block) {
+            // A block still in use stays; the newly leased remainder is skipped rather than reordering numbers.
+            if (block.next >= block.limit && next > block.next) {
+                block.next = next;
+                block.limit = limit;
+            }
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.airlineapi.service.booking;
+
+import org.example.airlineapi.exception.AlreadyHaveTicketException;
+import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.model.BookedSeatException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public final class TicketViolations {
+    private static final String SEAT_UNIQUE_CONSTRAINT = "ticket_flight_seat_uk";
+    private static final String PASSENGER_UNIQUE_CONSTRAINT = "ticket_flight_person_uk";
+    private static final String PERSON_FOREIGN_KEY = "ticket_person_fk";
+    private static final String FLIGHT_FOREIGN_KEY = "ticket_flight_fk";
+
+    private TicketViolations() {
+    }
+
+    /**
+     * @return the domain exception for the violated constraint, or {@code e} itself when it is not a ticket constraint
+     */
+    public static RuntimeException translate(DataIntegrityViolationException e, long flightId,
+                                             Collection<Long> seatNumbers, Collection<Long> personIds) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if(message.contains(SEAT_UNIQUE_CONSTRAINT)){
+            return new BookedSeatException(seatNumbers.size() == 1
+                    ? MessageFormat.format("Flight with id {0} already has a ticket with seat number {1}", flightId, seatNumbers.iterator().next())
+                    : MessageFormat.format("Flight with id {0} already has a ticket with one of seat numbers {1}", flightId, join(seatNumbers)));
+        }
+        if(message.contains(PASSENGER_UNIQUE_CONSTRAINT)){
+            return new AlreadyHaveTicketException(personIds.size() == 1
+                    ? MessageFormat.format("Person with id {0} already has a ticket for flight with id {1}", personIds.iterator().next(), flightId)
+                    : MessageFormat.format("One of persons with ids {0} already has a ticket for flight with id {1}", join(personIds), flightId));
+        }
+        if(message.contains(PERSON_FOREIGN_KEY)){
+            return new NotFoundException(personIds.size() == 1
+                    ? MessageFormat.format("Person with id {0} not found", personIds.iterator().next())
+                    : MessageFormat.format("One of persons with ids {0} not found", join(personIds)));
+        }
+        if(message.contains(FLIGHT_FOREIGN_KEY)){
+            return new NotFoundException(MessageFormat
+                    .format("Flight with id {0} not found", flightId));
+        }
+        return e;
+    }
+
+    private static String join(Collection<Long> values) {
+        return values.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.airlineapi.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.config.ImportProperties;
+import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.model.ValidationExceptionDto;
+import org.example.airlineapi.model.bulk.dto.ImportReportDto;
+import org.example.airlineapi.model.bulk.dto.ImportRowErrorDto;
+import org.example.airlineapi.model.flight.command.CreateFlightCommand;
+import org.example.airlineapi.model.person.command.CreatePersonCommand;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.FlightService;
+import org.example.airlineapi.service.PersonService;
+import org.example.airlineapi.service.TicketService;
+import org.example.airlineapi.service.booking.TicketViolations;
+import org.example.airlineapi.service.bulk.ImportRowReader.ImportRow;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Imports in chunks of {@code airline.imports.chunk-size}, each in its own transaction; refused rows are reported
+ * by line and skipped.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+    private static final String REFUSED_ROW = "Row was refused by the database";
+
+    private final FlightService flightService;
+    private final PersonService personService;
+    private final TicketService ticketService;
+    private final FlightRepository flightRepository;
+    private final ImportProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+
+    public ImportReportDto importFlights(InputStream body, MediaType contentType) throws IOException {
+        return importRows(body, contentType, CreateFlightCommand.class, flightService::createAll, (command, e) -> e);
+    }
+
+    public ImportReportDto importPersons(InputStream body, MediaType contentType) throws IOException {
+        return importRows(body, contentType, CreatePersonCommand.class, personService::createAll, (command, e) -> e);
+    }
+
+    public ImportReportDto importTickets(long flightId, InputStream body, MediaType contentType) throws IOException {
+        if (!flightRepository.existsById(flightId)) {
+            throw new NotFoundException(MessageFormat
+                    .format("Flight with id {0} not found", flightId));
+        }
+        return importRows(body, contentType, CreateTicketCommand.class,
+                commands -> ticketService.createAll(flightId, new CreateGroupTicketCommand(commands)),
+                (command, e) -> TicketViolations.translate(e, flightId, List.of(command.getSeatNumber()), List.of(command.getPersonId())));
+    }
+
+    private <C> ImportReportDto importRows(InputStream body, MediaType contentType, Class<C> type, Consumer<List<C>> writer,
+                                           BiFunction<C, DataIntegrityViolationException, RuntimeException> translation) throws IOException {
+        Report report = new Report(properties.getMaxReportedErrors());
+        List<C> chunk = new ArrayList<>(properties.getChunkSize());
+        List<Long> lines = new ArrayList<>(properties.getChunkSize());
+
+        try (ImportRowReader<C> reader = ImportRowReader.open(body, contentType, type, objectMapper)) {
+            for (ImportRow<C> row = reader.next(); row != null; row = reader.next()) {
+                report.rows++;
+                if (row.error() != null) {
+                    report.reject(row.line(), row.error(), List.of());
+                    continue;
+                }
+
+                Set<ConstraintViolation<C>> violations = validator.validate(row.command());
+                if (!violations.isEmpty()) {
+                    report.reject(row.line(), "Validation failed", violations.stream()
+                            .map(violation -> new ValidationExceptionDto(violation.getMessage(), violation.getPropertyPath().toString()))
+                            .toList());
+                    continue;
+                }
+
+                chunk.add(row.command());
+                lines.add(row.line());
+                if (chunk.size() == properties.getChunkSize()) {
+                    write(chunk, lines, writer, translation, report);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, lines, writer, translation, report);
+        }
+        return report.toDto();
+    }
+
+    private <C> void write(List<C> chunk, List<Long> lines, Consumer<List<C>> writer,
+                           BiFunction<C, DataIntegrityViolationException, RuntimeException> translation, Report report) {
+        try {
+            writer.accept(chunk);
+            report.imported += chunk.size();
+        } catch (RuntimeException e) {
+            // One refused row rolls back its whole chunk, so replay the chunk row by row to find it.
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    writer.accept(List.of(chunk.get(i)));
+                    report.imported++;
+                } catch (DataIntegrityViolationException rowException) {
+                    report.reject(lines.get(i), messageOf(translation.apply(chunk.get(i), rowException)), List.of());
+                } catch (RuntimeException rowException) {
+                    report.reject(lines.get(i), messageOf(rowException), List.of());
+                }
+            }
+        } finally {
+            // Under open-in-view every chunk shares the request's persistence context; clearing it keeps the heap flat.
+            entityManager.clear();
+            chunk.clear();
+            lines.clear();
+        }
+    }
+
+    private static String messageOf(RuntimeException e) {
+        return e instanceof NestedRuntimeException ? REFUSED_ROW : e.getMessage();
+    }
+
+    private static final class Report {
+        private final int maxReportedErrors;
+        private final List<ImportRowErrorDto> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        private Report(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long line, String message, List<ValidationExceptionDto> fields) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowErrorDto(line, message, fields));
+            }
+        }
+
+        private ImportReportDto toDto() {
+            return ImportReportDto.builder()
+                    .rows(rows)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.airlineapi.service.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.airlineapi.model.bulk.ImportFormat;
+import org.example.airlineapi.utils.CsvReader;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.List;
+
+abstract class ImportRowReader<C> implements Closeable {
+
+    record ImportRow<C>(long line, C command, String error) {
+    }
+
+    static <C> ImportRowReader<C> open(InputStream body, MediaType contentType, Class<C> type, ObjectMapper objectMapper) {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        ObjectReader commandReader = objectMapper.readerFor(type);
+        return ImportFormat.of(contentType) == ImportFormat.NDJSON
+                ? new NdjsonRowReader<>(reader, commandReader)
+                : new CsvRowReader<>(new CsvReader(reader), commandReader, objectMapper);
+    }
+
+    abstract ImportRow<C> next() throws IOException;
+
+    private static final class NdjsonRowReader<C> extends ImportRowReader<C> {
+        private final BufferedReader reader;
+        private final ObjectReader commandReader;
+        private long line;
+
+        private NdjsonRowReader(BufferedReader reader, ObjectReader commandReader) {
+            this.reader = reader;
+            this.commandReader = commandReader;
+        }
+
+        @Override
+        ImportRow<C> next() throws IOException {
+            String json;
+            do {
+                json = reader.readLine();
+                line++;
+            } while (json != null && json.isBlank());
+
+            if (json == null) {
+                return null;
+            }
+            try {
+                return new ImportRow<>(line, commandReader.readValue(json), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow<>(line, null, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class CsvRowReader<C> extends ImportRowReader<C> {
+        private final CsvReader reader;
+        private final ObjectReader commandReader;
+        private final ObjectMapper objectMapper;
+        private List<String> header;
+
+        private CsvRowReader(CsvReader reader, ObjectReader commandReader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.commandReader = commandReader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        ImportRow<C> next() throws IOException {
+            if (header == null) {
+                List<String> names = nextRecord();
+                if (names == null) {
+                    return null;
+                }
+                header = names.stream().map(String::trim).toList();
+            }
+
+            List<String> values = nextRecord();
+            if (values == null) {
+                return null;
+            }
+            long line = reader.getRecordLine();
+            if (values.size() != header.size()) {
+                return new ImportRow<>(line, null, MessageFormat
+                        .format("Expected {0} fields but found {1}", header.size(), values.size()));
+            }
+
+            // Empty fields are left out, so they fail the command's NOT_NULL checks rather than its patterns.
+            ObjectNode row = objectMapper.createObjectNode();
+            for (int i = 0; i < header.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    row.put(header.get(i), values.get(i));
+                }
+            }
+            try {
+                return new ImportRow<>(line, commandReader.readValue(row), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow<>(line, null, e.getOriginalMessage());
+            }
+        }
+
+        private List<String> nextRecord() throws IOException {
+            List<String> record;
+            do {
+                record = reader.next();
+            } while (record != null && record.size() == 1 && record.get(0).isBlank());
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.airlineapi.service.cache;
+
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.model.cache.dto.CacheStatsDto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
+
+/**
+ * Mapped DTOs by id, bounded and expired after {@code airline.dto-cache.ttl}, which is how rows changed by other
+ * instances show up.
+ */
+public class DtoCache<V> {
+
+    private final String name;
+    private final DtoCacheProperties properties;
+
+    private final Map<Long, Entry<V>> entries;
+    // Guarded by entries; lets a load that overlapped an invalidation skip caching a value read before the write.
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    protected DtoCache(String name, DtoCacheProperties properties) {
+        this.name = name;
+        this.properties = properties;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                if (size() > properties.getMaxEntries()) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(long id, LongFunction<V> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(id);
+        }
+
+        long now = System.nanoTime();
+        long seen;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(id);
+            if (entry != null && now - entry.loadedAt < properties.getTtl().toNanos()) {
+                hits++;
+                return entry.value;
+            }
+            misses++;
+            seen = invalidations;
+        }
+
+        V value = loader.apply(id);
+        synchronized (entries) {
+            if (invalidations == seen) {
+                entries.put(id, new Entry<>(value, now));
+            }
+        }
+        return value;
+    }
+
+    public V getIfPresent(long id) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(id);
+            if (entry == null || now - entry.loadedAt >= properties.getTtl().toNanos()) {
+                return null;
+            }
+            hits++;
+            return entry.value;
+        }
+    }
+
+    public void invalidateAfterCommit(long id) {
+        afterCommit(() -> {
+            synchronized (entries) {
+                invalidations++;
+                entries.remove(id);
+            }
+        });
+    }
+
+    public void invalidateAllAfterCommit() {
+        afterCommit(this::evictAll);
+    }
+
+    public void evictAll() {
+        synchronized (entries) {
+            invalidations++;
+            entries.clear();
+        }
+    }
+
+    public CacheStatsDto getStats() {
+        synchronized (entries) {
+            return CacheStatsDto.builder()
+                    .name(name)
+                    .size(entries.size())
+                    .maxEntries(properties.getMaxEntries())
+                    .hits(hits)
+                    .misses(misses)
+                    .evictions(evictions)
+                    .build();
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.airlineapi.service.cache;
+
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FlightDtoCache extends DtoCache<FlightDto> {
+
+    public FlightDtoCache(DtoCacheProperties properties) {
+        super("flights", properties);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.airlineapi.service.cache;
+
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.model.person.dto.PersonDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PersonDtoCache extends DtoCache<PersonDto> {
+
+    public PersonDtoCache(DtoCacheProperties properties) {
+        super("persons", properties);
+    }
+}
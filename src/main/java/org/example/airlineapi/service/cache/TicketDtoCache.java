@@ -0,0 +1,13 @@
+package org.example.airlineapi.service.cache;
+
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.model.ticket.dto.TicketDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TicketDtoCache extends DtoCache<TicketDto> {
+
+    public TicketDtoCache(DtoCacheProperties properties) {
+        super("tickets", properties);
+    }
+}
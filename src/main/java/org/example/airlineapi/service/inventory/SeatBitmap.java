@@ -0,0 +1,67 @@
+package org.example.airlineapi.service.inventory;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class SeatBitmap {
+    private final int numberOfSeats;
+    private long[] words = new long[1];
+
+    public SeatBitmap(int numberOfSeats) {
+        this.numberOfSeats = numberOfSeats;
+    }
+
+    public synchronized void occupy(long seatNumber) {
+        if (seatNumber < 1 || seatNumber > numberOfSeats) {
+            return;
+        }
+        int word = wordIndex(seatNumber);
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.min(Math.max(word + 1, words.length * 2), wordIndex(numberOfSeats) + 1));
+        }
+        words[word] |= 1L << bitIndex(seatNumber);
+    }
+
+    public synchronized void release(long seatNumber) {
+        if (seatNumber < 1) {
+            return;
+        }
+        int word = wordIndex(seatNumber);
+        if (word < words.length) {
+            words[word] &= ~(1L << bitIndex(seatNumber));
+        }
+    }
+
+    public synchronized boolean isOccupied(long seatNumber) {
+        int word = wordIndex(seatNumber);
+        return seatNumber >= 1 && word < words.length && (words[word] & (1L << bitIndex(seatNumber))) != 0;
+    }
+
+    public synchronized int occupiedCount() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public synchronized Set<Long> freeSeats(int numberOfSeats) {
+        Set<Long> freeSeats = new LinkedHashSet<>();
+        for (long seat = 1; seat <= numberOfSeats; seat++) {
+            int word = wordIndex(seat);
+            if (word >= words.length || (words[word] & (1L << bitIndex(seat))) == 0) {
+                freeSeats.add(seat);
+            }
+        }
+        return freeSeats;
+    }
+
+    private static int wordIndex(long seatNumber) {
+        return (int) ((seatNumber - 1) >>> 6);
+    }
+
+    private static int bitIndex(long seatNumber) {
+        return (int) ((seatNumber - 1) & 63);
+    }
+}
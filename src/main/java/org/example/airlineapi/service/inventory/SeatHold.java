@@ -0,0 +1,32 @@
+package org.example.airlineapi.service.inventory;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.airlineapi.utils.TimingWheel;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+public class SeatHold {
+    private final UUID id;
+    private final long flightId;
+    private final Set<Long> seatNumbers;
+    private final Instant expiresAt;
+
+    @Setter(AccessLevel.PACKAGE)
+    private volatile TimingWheel.Timeout timeout;
+    @Setter(AccessLevel.PACKAGE)
+    private volatile boolean converting;
+    @Setter(AccessLevel.PACKAGE)
+    private volatile boolean expired;
+
+    SeatHold(long flightId, Set<Long> seatNumbers, Instant expiresAt) {
+        this.id = UUID.randomUUID();
+        this.flightId = flightId;
+        this.seatNumbers = Set.copyOf(seatNumbers);
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.airlineapi.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.airlineapi.config.SeatHoldProperties;
+import org.example.airlineapi.exception.model.BookedSeatException;
+import org.example.airlineapi.utils.TimingWheel;
+import org.springframework.stereotype.Component;
+
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCompletion;
+
+/**
+ * Holds on seats that are not tickets yet, plus short claims made by bookings. A seat has at most one claim.
+ */
+@Slf4j
+@Component
+public class SeatHoldRegistry {
+
+    private final SeatHoldProperties properties;
+    private final TimingWheel timingWheel;
+    private final ScheduledExecutorService ticker;
+
+    private final ConcurrentMap<Long, ConcurrentMap<Long, Object>> claims = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, SeatHold> holds = new ConcurrentHashMap<>();
+
+    public SeatHoldRegistry(SeatHoldProperties properties) {
+        this.properties = properties;
+        this.timingWheel = new TimingWheel(properties.getTick().toMillis(), properties.getWheelSize(), System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        long tickMillis = properties.getTick().toMillis();
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            timingWheel.advanceClock(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.error("Seat hold expiry failed", e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    public SeatHold hold(long flightId, Set<Long> seatNumbers) {
+        SeatHold hold = new SeatHold(flightId, seatNumbers, Instant.now().plus(properties.getTtl()));
+        claimAll(flightId, seatNumbers, hold);
+        holds.put(hold.getId(), hold);
+        // expire() synchronizes on the hold too, so it cannot run before the timeout is assigned.
+        synchronized (hold) {
+            hold.setTimeout(timingWheel.schedule(hold.getExpiresAt().toEpochMilli(), () -> expire(hold)));
+        }
+        return hold;
+    }
+
+    public void claimForBookingUntilCompletion(long flightId, long seatNumber) {
+        Object booking = new Object();
+        claimAll(flightId, Set.of(seatNumber), booking);
+        afterCompletion(() -> unclaim(flightId, seatNumber, booking));
+    }
+
+    public Set<Long> getClaimedSeats(long flightId) {
+        Map<Long, Object> flightClaims = claims.get(flightId);
+        return flightClaims == null ? Set.of() : Set.copyOf(flightClaims.keySet());
+    }
+
+    public Optional<SeatHold> find(long flightId, UUID holdId) {
+        return Optional.ofNullable(holds.get(holdId))
+                .filter(hold -> hold.getFlightId() == flightId);
+    }
+
+    public boolean beginConversion(SeatHold hold) {
+        synchronized (hold) {
+            if (hold.isConverting() || hold.isExpired()) {
+                return false;
+            }
+            hold.setConverting(true);
+            return true;
+        }
+    }
+
+    public void abortConversion(SeatHold hold) {
+        synchronized (hold) {
+            hold.setConverting(false);
+            if (hold.isExpired()) {
+                unclaimAll(hold);
+            }
+        }
+    }
+
+    public void completeConversion(SeatHold hold) {
+        synchronized (hold) {
+            hold.setConverting(false);
+            unclaimAll(hold);
+        }
+    }
+
+    /**
+     * @return false when the hold is being converted into tickets
+     */
+    public boolean release(SeatHold hold) {
+        synchronized (hold) {
+            if (hold.isConverting()) {
+                return false;
+            }
+            unclaimAll(hold);
+            return true;
+        }
+    }
+
+    public void releaseAll(long flightId) {
+        List<SeatHold> flightHolds = new ArrayList<>();
+        holds.values().forEach(hold -> {
+            if (hold.getFlightId() == flightId) {
+                flightHolds.add(hold);
+            }
+        });
+        flightHolds.forEach(this::release);
+    }
+
+    public void evictAll() {
+        holds.values().forEach(SeatHoldRegistry::cancelTimeout);
+        holds.clear();
+        claims.clear();
+    }
+
+    private void expire(SeatHold hold) {
+        synchronized (hold) {
+            hold.setExpired(true);
+            if (!hold.isConverting()) {
+                unclaimAll(hold);
+            }
+        }
+    }
+
+    private void unclaimAll(SeatHold hold) {
+        cancelTimeout(hold);
+        holds.remove(hold.getId(), hold);
+        hold.getSeatNumbers().forEach(seatNumber -> unclaim(hold.getFlightId(), seatNumber, hold));
+    }
+
+    private static void cancelTimeout(SeatHold hold) {
+        TimingWheel.Timeout timeout = hold.getTimeout();
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void claimAll(long flightId, Set<Long> seatNumbers, Object owner) {
+        ConcurrentMap<Long, Object> flightClaims = claims.computeIfAbsent(flightId, id -> new ConcurrentHashMap<>());
+        List<Long> claimed = new ArrayList<>();
+        for (Long seatNumber : seatNumbers) {
+            if (flightClaims.putIfAbsent(seatNumber, owner) != null) {
+                claimed.forEach(seat -> flightClaims.remove(seat, owner));
+                throw new BookedSeatException(MessageFormat
+                        .format("Seat {1} on flight with id {0} is held by another booking", flightId, seatNumber));
+            }
+            claimed.add(seatNumber);
+        }
+    }
+
+    private void unclaim(long flightId, long seatNumber, Object owner) {
+        Map<Long, Object> flightClaims = claims.get(flightId);
+        if (flightClaims != null) {
+            flightClaims.remove(seatNumber, owner);
+        }
+    }
+}
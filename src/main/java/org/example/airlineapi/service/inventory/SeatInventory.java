@@ -0,0 +1,97 @@
+package org.example.airlineapi.service.inventory;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.repository.TicketRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
+
+/**
+ * Occupied seats per flight, loaded on first use and updated after commit. Changes made elsewhere show up
+ * when the bitmaps are rebuilt.
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatInventory {
+
+    private final TicketRepository ticketRepository;
+
+    private final ConcurrentMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    public Set<Long> getFreeSeats(long flightId, int numberOfSeats) {
+        return bitmap(flightId, numberOfSeats).freeSeats(numberOfSeats);
+    }
+
+    public boolean isOccupied(long flightId, int numberOfSeats, long seatNumber) {
+        return bitmap(flightId, numberOfSeats).isOccupied(seatNumber);
+    }
+
+    public void occupyAfterCommit(long flightId, long seatNumber) {
+        afterCommit(() -> {
+            Slot slot = slots.get(flightId);
+            if (slot == null) {
+                return;
+            }
+            // Waits for a load in progress, so a booking committed during the load is never lost.
+            slot.lock.lock();
+            try {
+                if (slot.bitmap != null) {
+                    slot.bitmap.occupy(seatNumber);
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        });
+    }
+
+    public void evictAfterCommit(long flightId) {
+        afterCommit(() -> slots.remove(flightId));
+    }
+
+    public void evict(long flightId) {
+        slots.remove(flightId);
+    }
+
+    @Scheduled(fixedDelayString = "${airline.seat-inventory.rebuild-interval:PT5M}",
+            initialDelayString = "${airline.seat-inventory.rebuild-interval:PT5M}")
+    public void evictAll() {
+        slots.clear();
+    }
+
+    private SeatBitmap bitmap(long flightId, int numberOfSeats) {
+        Slot slot = slots.computeIfAbsent(flightId, id -> new Slot());
+        SeatBitmap bitmap = slot.bitmap;
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        // The query runs under the flight's own ReentrantLock rather than inside computeIfAbsent, whose bin lock
+        // would pin a virtual thread to its carrier for the whole query and block other flights in the same bin.
+        slot.lock.lock();
+        try {
+            if (slot.bitmap == null) {
+                slot.bitmap = load(flightId, numberOfSeats);
+            }
+            return slot.bitmap;
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    private SeatBitmap load(long flightId, int numberOfSeats) {
+        SeatBitmap bitmap = new SeatBitmap(numberOfSeats);
+        ticketRepository.findSeatNumbersByFlightId(flightId).forEach(bitmap::occupy);
+        return bitmap;
+    }
+
+    private static final class Slot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile SeatBitmap bitmap;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.airlineapi.service.inventory;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.FlightService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
+
+@Component
+@RequiredArgsConstructor
+public class SoldSeatsReconciler {
+
+    private final FlightRepository flightRepository;
+    private final FlightService flightService;
+
+    private final Set<Long> pendingFlightIds = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(cron = "${airline.sold-seats.reconcile-cron:0 0 3 * * *}")
+    public int reconcile() {
+        List<Long> flightIds = flightRepository.findIdsWithSoldSeatsMismatch();
+        flightIds.forEach(flightService::recountSoldSeats);
+        return flightIds.size();
+    }
+
+    public void recountAfterCommit(long flightId) {
+        afterCommit(() -> pendingFlightIds.add(flightId));
+    }
+
+    @Scheduled(fixedDelayString = "${airline.sold-seats.recount-delay:PT1S}")
+    public void recountPending() {
+        for (Long flightId : pendingFlightIds) {
+            // Removed first, so a booking that commits during the recount has the flight recounted again.
+            pendingFlightIds.remove(flightId);
+            flightService.recountSoldSeats(flightId);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.airlineapi.service.paging;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.config.PagingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+@Component
+@RequiredArgsConstructor
+public class ApproximateCountCache {
+
+    private final PagingProperties properties;
+
+    private final Map<Object, Entry> counts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+            return size() > properties.getCountCacheSize();
+        }
+    };
+
+    /**
+     * @param key identifies the search; must implement equals and hashCode
+     */
+    public long count(Object key, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        synchronized (counts) {
+            Entry entry = counts.get(key);
+            if (entry != null && now - entry.countedAt < properties.getCountTtl().toNanos()) {
+                return entry.count;
+            }
+        }
+
+        long count = exactCount.getAsLong();
+        synchronized (counts) {
+            counts.put(key, new Entry(count, now));
+        }
+        return count;
+    }
+
+    public void evictAll() {
+        synchronized (counts) {
+            counts.clear();
+        }
+    }
+
+    private record Entry(long count, long countedAt) {
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.airlineapi.service.paging;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.example.airlineapi.config.PagingProperties;
+import org.example.airlineapi.model.page.SlicedPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * With {@code airline.paging.concurrent-count} the count runs on a virtual thread and a connection of its own,
+ * next to the content query; without a free permit or idle connection it runs after the content.
+ */
+@Component
+public class PageQueryExecutor {
+
+    private final PagingProperties properties;
+    private final DataSource dataSource;
+    private final Semaphore countPermits;
+    private final ExecutorService countExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PageQueryExecutor(PagingProperties properties, DataSource dataSource) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.countPermits = new Semaphore(properties.getMaxConcurrentCounts());
+    }
+
+    public <T> Page<T> findAll(JpaSpecificationExecutor<T> repository, Specification<T> specs, Pageable pageable) {
+        Future<Long> total = startCount(repository, specs, pageable);
+        if (total == null) {
+            return repository.findAll(specs, pageable);
+        }
+
+        Window<T> content = repository.findBy(specs, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(SlicedPage.positionOf(pageable)));
+        return PageableExecutionUtils.getPage(content.getContent(), pageable, () -> await(total));
+    }
+
+    public <T, R> Page<R> findAll(JpaSpecificationExecutor<T> repository, Specification<T> specs, Pageable pageable,
+                                  Function<Pageable, List<R>> content) {
+        Future<Long> total = startCount(repository, specs, pageable);
+        if (total == null) {
+            return PageableExecutionUtils.getPage(content.apply(pageable), pageable, () -> repository.count(specs));
+        }
+        return PageableExecutionUtils.getPage(content.apply(pageable), pageable, () -> await(total));
+    }
+
+    private <T> Future<Long> startCount(JpaSpecificationExecutor<T> repository, Specification<T> specs, Pageable pageable) {
+        if (!properties.isConcurrentCount() || pageable.isUnpaged() || !poolHasIdleConnection() || !countPermits.tryAcquire()) {
+            return null;
+        }
+
+        try {
+            return countExecutor.submit(() -> {
+                try {
+                    return repository.count(specs);
+                } finally {
+                    countPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            countPermits.release();
+            return null;
+        }
+    }
+
+    private boolean poolHasIdleConnection() {
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+            return pool == null || pool.getIdleConnections() > 0;
+        }
+        return true;
+    }
+
+    private static long await(Future<Long> total) {
+        try {
+            return total.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the page count", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        countExecutor.shutdown();
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.airlineapi.service.paging;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.airlineapi.config.PagingProperties;
+import org.example.airlineapi.exception.TooManyStreamsException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class StreamPermits {
+    // Hikari's own default, for a DataSource that does not say how large its pool is
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final int limit;
+    private final Semaphore permits;
+
+    public StreamPermits(PagingProperties properties, DataSource dataSource) {
+        int poolSize = dataSource instanceof HikariDataSource hikariDataSource
+                ? hikariDataSource.getMaximumPoolSize()
+                : DEFAULT_POOL_SIZE;
+        this.limit = Math.max(1, (int) (poolSize * properties.getStreamPoolShare()));
+        this.permits = new Semaphore(limit);
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public Permit acquire() {
+        if (!permits.tryAcquire()) {
+            throw new TooManyStreamsException("Too many streams are running. Please try again later.");
+        }
+        return new Permit();
+    }
+
+    /**
+     * Releases on the first close only.
+     */
+    public final class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.airlineapi.service.search;
+
+import lombok.RequiredArgsConstructor;
+import org.example.airlineapi.mapper.FlightMapper;
+import org.example.airlineapi.model.flight.FlightSearchCriteria;
+import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.example.airlineapi.repository.FlightRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.example.airlineapi.utils.TransactionCallbacks.afterCommit;
+
+/**
+ * Every flight by route and departure time, answering route searches without a query.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlightSearchIndex {
+
+    private final FlightRepository flightRepository;
+
+    private final Object lock = new Object();
+    private volatile Routes routes;
+    // Guarded by lock; lets a load that overlapped a change discard itself instead of publishing stale flights.
+    private long changes;
+
+    /**
+     * @return empty when the criteria need the database
+     */
+    public Optional<Page<FlightDto>> search(FlightSearchCriteria criteria, Pageable pageable) {
+        if (!covers(criteria, pageable.getSort())) {
+            return Optional.empty();
+        }
+        Routes index = routes != null ? routes : load();
+        if (index == null) {
+            return Optional.empty();
+        }
+
+        List<FlightDto> flights = index.find(criteria, pageable.getSort().isSorted()
+                && pageable.getSort().iterator().next().isDescending());
+        int from = (int) Math.min(pageable.getOffset(), flights.size());
+        int to = Math.min(from + pageable.getPageSize(), flights.size());
+        return Optional.of(new PageImpl<>(flights.subList(from, to), pageable, flights.size()));
+    }
+
+    public void putAfterCommit(FlightDto flight) {
+        afterCommit(() -> change(index -> index.put(flight)));
+    }
+
+    public void putAllAfterCommit(List<FlightDto> flights) {
+        afterCommit(() -> change(index -> flights.forEach(index::put)));
+    }
+
+    public void removeAfterCommit(long flightId) {
+        afterCommit(() -> change(index -> index.remove(flightId)));
+    }
+
+    @Scheduled(fixedDelayString = "${airline.flight-search.rebuild-interval:PT5M}",
+            initialDelayString = "${airline.flight-search.rebuild-interval:PT5M}")
+    public void evictAll() {
+        synchronized (lock) {
+            routes = null;
+            changes++;
+        }
+    }
+
+    private static boolean covers(FlightSearchCriteria criteria, Sort sort) {
+        if (criteria == null
+                || criteria.getOrigin() == null || criteria.getOrigin().isEmpty()
+                || criteria.getDestination() == null || criteria.getDestination().isEmpty()
+                || criteria.getFlightNumber() != null
+                || criteria.getAvailableSeats() != null) {
+            return false;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.isEmpty() || orders.size() == 1 && orders.get(0).getProperty().equals("departureTime");
+    }
+
+    private void change(Consumer<Routes> change) {
+        synchronized (lock) {
+            changes++;
+            if (routes != null) {
+                change.accept(routes);
+            }
+        }
+    }
+
+    private Routes load() {
+        long seen;
+        synchronized (lock) {
+            if (routes != null) {
+                return routes;
+            }
+            seen = changes;
+        }
+
+        Routes loaded = new Routes();
+        flightRepository.findAll().stream()
+                .map(FlightMapper::toDto)
+                .forEach(loaded::put);
+
+        synchronized (lock) {
+            if (changes != seen) {
+                return null;
+            }
+            routes = loaded;
+            return loaded;
+        }
+    }
+
+    private record Route(String origin, String destination) {
+    }
+
+    private record Departure(LocalDateTime time, long id) implements Comparable<Departure> {
+        private static final Comparator<Departure> ORDER = Comparator
+                .comparing(Departure::time, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(Departure::id);
+
+        private static Departure of(FlightDto flight) {
+            return new Departure(flight.getDepartureTime(), flight.getId());
+        }
+
+        @Override
+        public int compareTo(Departure other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Routes {
+        private final ConcurrentMap<Route, NavigableMap<Departure, FlightDto>> byRoute = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, FlightDto> byId = new ConcurrentHashMap<>();
+
+        private void put(FlightDto flight) {
+            remove(flight.getId());
+            byId.put(flight.getId(), flight);
+            byRoute.computeIfAbsent(new Route(flight.getOrigin(), flight.getDestination()),
+                    route -> new ConcurrentSkipListMap<>()).put(Departure.of(flight), flight);
+        }
+
+        private void remove(long flightId) {
+            FlightDto flight = byId.remove(flightId);
+            if (flight != null) {
+                byRoute.get(new Route(flight.getOrigin(), flight.getDestination())).remove(Departure.of(flight));
+            }
+        }
+
+        /**
+         * Applies the criteria like {@code FlightSpecs}: a time range needs both ends, which are inclusive.
+         */
+        private List<FlightDto> find(FlightSearchCriteria criteria, boolean descending) {
+            NavigableMap<Departure, FlightDto> flights = byRoute.getOrDefault(
+                    new Route(criteria.getOrigin(), criteria.getDestination()), Collections.emptyNavigableMap());
+
+            LocalDateTime departureFrom = criteria.getDepartureTimeFrom();
+            LocalDateTime departureTo = criteria.getDepartureTimeTo();
+            if (departureFrom != null && departureTo != null) {
+                if (departureFrom.isAfter(departureTo)) {
+                    return List.of();
+                }
+                flights = flights.subMap(new Departure(departureFrom, Long.MIN_VALUE), true,
+                        new Departure(departureTo, Long.MAX_VALUE), true);
+            }
+            if (descending) {
+                flights = flights.descendingMap();
+            }
+
+            Stream<FlightDto> matching = flights.values().stream();
+            LocalDateTime arrivalFrom = criteria.getArrivalTimeFrom();
+            LocalDateTime arrivalTo = criteria.getArrivalTimeTo();
+            if (arrivalFrom != null && arrivalTo != null) {
+                matching = matching.filter(flight -> flight.getArrivalTime() != null
+                        && !flight.getArrivalTime().isBefore(arrivalFrom)
+                        && !flight.getArrivalTime().isAfter(arrivalTo));
+            }
+            return matching.toList();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.airlineapi.utils;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public final class ETags {
+    private static final Pattern TAG = Pattern.compile("(W/)?\"[^\"]*\"");
+
+    private ETags() {
+    }
+
+    public static String of(long... versions) {
+        return Arrays.stream(versions)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    public static <T> ResponseEntity<T> tagged(T body, long... versions) {
+        return ResponseEntity.ok()
+                .eTag(of(versions))
+                .body(body);
+    }
+
+    /**
+     * @return the strong tags listed, or null when the header is absent or {@code *}
+     */
+    public static Set<String> ifMatch(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        Matcher matcher = TAG.matcher(header);
+        while (matcher.find()) {
+            if (matcher.group(1) == null) {
+                tags.add(matcher.group());
+            }
+        }
+        return tags;
+    }
+
+    public static boolean matches(Set<String> ifMatch, long... versions) {
+        return ifMatch == null || ifMatch.contains(of(versions));
+    }
+}
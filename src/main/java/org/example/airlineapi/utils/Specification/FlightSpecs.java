@@ -6,8 +6,12 @@ import org.example.airlineapi.model.flight.FlightSearchCriteria;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 public class FlightSpecs {
+    public static final Set<String> SORTABLE = Set.of("flightNumber", "origin", "destination", "departureTime",
+            "arrivalTime", "numberOfSeats");
+
     private static Specification<Flight> equalFlightNumber(long flightNumber) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("flightNumber"), flightNumber);
     }
@@ -28,8 +32,9 @@ public class FlightSpecs {
         return (root, query, criteriaBuilder) -> criteriaBuilder.between(root.get("arrivalTime"), arrivalTimeFrom, arrivalTimeTo);
     }
 
-    private static Specification<Flight> equalAvailableSeats(int availableSeats) {
-        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("availableSeats"), availableSeats);
+    private static Specification<Flight> atLeastFreeSeats(int availableSeats) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(
+                criteriaBuilder.diff(root.<Integer>get("numberOfSeats"), root.<Integer>get("soldSeats")), availableSeats);
     }
 
     public static Specification<Flight> createSpecs(FlightSearchCriteria criteria){
@@ -60,7 +65,7 @@ public class FlightSpecs {
         }
 
         if(criteria.getAvailableSeats() != null){
-            specs = specs.and(equalAvailableSeats(criteria.getAvailableSeats()));
+            specs = specs.and(atLeastFreeSeats(criteria.getAvailableSeats()));
         }
 
         return specs;
@@ -0,0 +1,85 @@
+package org.example.airlineapi.utils.Specification;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.example.airlineapi.exception.IllegalBehaviourException;
+import org.example.airlineapi.model.page.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+public class KeysetSpecs {
+
+    public static <T> Specification<T> after(KeysetCursor cursor) {
+        if (cursor.isFirstPage()) {
+            return Specification.where(null);
+        }
+
+        return (root, query, criteriaBuilder) -> {
+            Path<Long> id = root.get("id");
+            if ("id".equals(cursor.property())) {
+                return beyond(criteriaBuilder, cursor.direction(), id, cursor.id());
+            }
+
+            Path<Comparable<Object>> sortKey = root.get(cursor.property());
+            Comparable<Object> value = parse(cursor.value(), sortKey.getJavaType());
+            // The leading bound is implied by the disjunction but lets the planner range-scan a (property, id) index.
+            return criteriaBuilder.and(
+                    reached(criteriaBuilder, cursor.direction(), sortKey, value),
+                    criteriaBuilder.or(
+                            beyond(criteriaBuilder, cursor.direction(), sortKey, value),
+                            criteriaBuilder.and(
+                                    criteriaBuilder.equal(sortKey, value),
+                                    beyond(criteriaBuilder, cursor.direction(), id, cursor.id()))));
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate reached(CriteriaBuilder criteriaBuilder, Sort.Direction direction,
+                                                                     Expression<? extends Y> path, Y value) {
+        return direction.isAscending()
+                ? criteriaBuilder.greaterThanOrEqualTo(path, value)
+                : criteriaBuilder.lessThanOrEqualTo(path, value);
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate beyond(CriteriaBuilder criteriaBuilder, Sort.Direction direction,
+                                                                    Expression<? extends Y> path, Y value) {
+        return direction.isAscending()
+                ? criteriaBuilder.greaterThan(path, value)
+                : criteriaBuilder.lessThan(path, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> parse(String value, Class<?> type) {
+        Object parsed;
+        try {
+            if (type == String.class) {
+                parsed = value;
+            } else if (type == Long.class || type == long.class) {
+                parsed = Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                parsed = Integer.valueOf(value);
+            } else if (type == Double.class || type == double.class) {
+                parsed = Double.valueOf(value);
+            } else if (type == BigDecimal.class) {
+                parsed = new BigDecimal(value);
+            } else if (type == LocalDateTime.class) {
+                parsed = LocalDateTime.parse(value);
+            } else if (type == LocalDate.class) {
+                parsed = LocalDate.parse(value);
+            } else {
+                throw new IllegalBehaviourException(MessageFormat
+                        .format("Cannot page by a property of type {0}", type.getSimpleName()));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalBehaviourException("Invalid cursor", e);
+        }
+        return (Comparable<Object>) parsed;
+    }
+}
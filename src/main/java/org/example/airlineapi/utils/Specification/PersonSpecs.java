@@ -6,8 +6,11 @@ import org.example.airlineapi.model.person.PersonSearchCriteria;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.util.Set;
 
 public class PersonSpecs {
+    public static final Set<String> SORTABLE = Set.of("firstName", "lastName", "email", "phoneNumber", "dateOfBirth");
+
     public static Specification<Person> equalFirstName(String firstName) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("firstName"), firstName);
     }
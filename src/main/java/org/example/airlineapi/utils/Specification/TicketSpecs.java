@@ -5,7 +5,14 @@ import org.example.airlineapi.model.ticket.Ticket;
 import org.example.airlineapi.model.ticket.TicketSearchCriteria;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Set;
+
 public class TicketSpecs {
+    /**
+     * Passenger and flight columns are left out: a ticket without one would have nothing to seek past.
+     */
+    public static final Set<String> SORTABLE = Set.of("seatNumber", "ticketNumber", "price");
+
 
     private static Specification<Ticket> equalSeatNumber(long seatNumber) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("seatNumber"), seatNumber);
@@ -0,0 +1,128 @@
+package org.example.airlineapi.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel; the clock only moves when {@link #advanceClock(long)} is called.
+ */
+public class TimingWheel {
+
+    private final Level root;
+    private final List<Timeout> due = new ArrayList<>();
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        root = new Level(tickMillis, wheelSize, startMillis);
+    }
+
+    public synchronized Timeout schedule(long expirationMillis, Runnable action) {
+        Timeout timeout = new Timeout(expirationMillis, action);
+        if (!root.add(timeout)) {
+            due.add(timeout);
+        }
+        return timeout;
+    }
+
+    public void advanceClock(long nowMillis) {
+        List<Timeout> expired;
+        synchronized (this) {
+            root.advanceTo(nowMillis);
+            expired = new ArrayList<>(due);
+            due.clear();
+        }
+
+        for (Timeout timeout : expired) {
+            if (!timeout.cancelled) {
+                timeout.action.run();
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private final long expirationMillis;
+        private final Runnable action;
+        private volatile boolean cancelled;
+
+        private Timeout(long expirationMillis, Runnable action) {
+            this.expirationMillis = expirationMillis;
+            this.action = action;
+        }
+
+        public long getExpirationMillis() {
+            return expirationMillis;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final class Level {
+        private final long tickMillis;
+        private final long intervalMillis;
+        private final Deque<Timeout>[] buckets;
+        private long currentTime;
+        private Level overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.intervalMillis = tickMillis * wheelSize;
+            this.buckets = new Deque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            this.currentTime = startMillis - (startMillis % tickMillis);
+        }
+
+        private boolean add(Timeout timeout) {
+            if (timeout.cancelled) {
+                return true;
+            }
+            if (timeout.expirationMillis < currentTime + tickMillis) {
+                return false;
+            }
+            if (timeout.expirationMillis < currentTime + intervalMillis) {
+                buckets[bucketIndex(timeout.expirationMillis)].add(timeout);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level(intervalMillis, buckets.length, currentTime);
+            }
+            return overflow.add(timeout);
+        }
+
+        private void advanceTo(long timeMillis) {
+            while (timeMillis >= currentTime + tickMillis) {
+                currentTime += tickMillis;
+                flush(buckets[bucketIndex(currentTime)]);
+                if (overflow != null) {
+                    overflow.advanceTo(currentTime);
+                }
+            }
+        }
+
+        private void flush(Deque<Timeout> bucket) {
+            Timeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                // Re-inserting from the root cascades the timeout into a finer level or marks it as due.
+                if (!root.add(timeout)) {
+                    due.add(timeout);
+                }
+            }
+        }
+
+        private int bucketIndex(long timeMillis) {
+            return (int) ((timeMillis / tickMillis) % buckets.length);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.airlineapi.benchmark;
+
+import org.example.airlineapi.config.BookingMode;
+import org.example.airlineapi.config.BookingProperties;
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.example.airlineapi.service.TicketService;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Books every seat of one flight from many threads, twice per seat and twice per passenger, once in every
+ * {@link BookingMode}. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-benchmark;LOCK_TIMEOUT=30000")
+@ActiveProfiles("test")
+class BookingContentionBenchmark {
+    private static final int SEATS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private BookingProperties bookingProperties;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long flightId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO flight (flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES ('BENCH', 'Warsaw', 'Oslo', '2030-01-01', '2030-01-01', ?)", SEATS);
+        flightId = jdbcTemplate.queryForObject("SELECT max(id) FROM flight", Long.class);
+        jdbcTemplate.update("INSERT INTO ticket_number_counter (flight_id, next_value) VALUES (?, 1)", flightId);
+        jdbcTemplate.batchUpdate("INSERT INTO person (first_name, last_name, email, phone_number, date_of_birth) " +
+                "VALUES ('Bench', 'Person', 'bench@example.com', '123456789', '1990-01-01')",
+                Collections.nCopies(SEATS, new Object[0]));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ticket");
+        jdbcTemplate.update("DELETE FROM person");
+        jdbcTemplate.update("DELETE FROM flight");
+        jdbcTemplate.update("DELETE FROM ticket_number_counter");
+        seatInventory.evictAll();
+        bookingProperties.setMode(BookingMode.ROW_LOCK);
+    }
+
+    @Test
+    void compareBookingModes() throws Exception {
+        for (BookingMode mode : BookingMode.values()) {
+            long nanos = run(mode);
+            jdbcTemplate.update("DELETE FROM ticket");
+            jdbcTemplate.update("UPDATE flight SET sold_seats = 0");
+            seatInventory.evictAll();
+
+            System.out.printf("%-12s  %d attempts in %d ms%n", mode + ":", SEATS * 2, nanos / 1_000_000);
+        }
+    }
+
+    private long run(BookingMode mode) throws Exception {
+        bookingProperties.setMode(mode);
+        List<Long> personIds = jdbcTemplate.queryForList("SELECT id FROM person ORDER BY id", Long.class);
+
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            // Attempt k books seat k % SEATS + 1 for passenger k / 2, so every seat and every passenger is contended.
+            for (int k = 0; k < SEATS * 2; k++) {
+                CreateTicketCommand command = CreateTicketCommand.builder()
+                        .seatNumber(k % SEATS + 1)
+                        .personId(personIds.get(k / 2))
+                        .price(BigDecimal.TEN)
+                        .build();
+                futures.add(executor.submit(() -> {
+                    try {
+                        ticketService.create(flightId, command);
+                    } catch (RuntimeException ignored) {
+                        // Losing a contended seat or passenger is the expected outcome for half of the attempts.
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM (SELECT seat_number FROM ticket GROUP BY seat_number HAVING count(*) > 1)", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM (SELECT person_id FROM ticket GROUP BY person_id HAVING count(*) > 1)", Integer.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT count(*) FROM ticket", Integer.class) <= SEATS);
+        return elapsed;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.airlineapi.benchmark;
+
+import org.example.airlineapi.model.bulk.dto.ImportReportDto;
+import org.example.airlineapi.service.bulk.BulkImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Streams generated NDJSON passengers through the bulk import without ever holding the body in memory, and
+ * reports the throughput and the heap in use after the import. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:import-benchmark", "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+class BulkImportBenchmark {
+    private static final int ROWS = 100_000;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM person");
+    }
+
+    @Test
+    void importPersons() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        long start = System.nanoTime();
+        ImportReportDto report = bulkImportService.importPersons(new GeneratedPersons(ROWS), MediaType.APPLICATION_NDJSON);
+        long elapsed = System.nanoTime() - start;
+
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        assertEquals(ROWS, report.getImported());
+        System.out.printf("%d rows in %d ms (%d rows/min), heap %d MB before, %d MB after%n",
+                ROWS, elapsed / 1_000_000, ROWS * 60_000_000_000L / elapsed,
+                heapBefore >> 20, heapAfter >> 20);
+    }
+
+    /**
+     * Produces one NDJSON line at a time.
+     */
+    private static final class GeneratedPersons extends InputStream {
+        private final int rows;
+        private int row;
+        private byte[] line = new byte[0];
+        private int position;
+
+        private GeneratedPersons(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row == rows) {
+                    return -1;
+                }
+                line = ("{\"firstName\":\"Bench\",\"lastName\":\"Person\",\"email\":\"bench" + row++ +
+                        "@example.com\",\"phoneNumber\":\"123456789\",\"dateOfBirth\":\"1990-01-01\"}\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.airlineapi.benchmark;
+
+import org.example.airlineapi.mapper.FlightMapper;
+import org.example.airlineapi.model.flight.FlightSearchCriteria;
+import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.FlightService;
+import org.example.airlineapi.service.search.FlightSearchIndex;
+import org.example.airlineapi.utils.Specification.FlightSpecs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same route searches once through {@link FlightSearchIndex} and once as Specification queries over a
+ * catalog of generated flights, and reports the searches per second of each. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:search-benchmark", "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+class FlightSearchIndexBenchmark {
+    private static final int ROUTES = 200;
+    private static final int FLIGHTS_PER_ROUTE = 250;
+    private static final int SEARCHES = 2_000;
+    private static final int ROUNDS = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private FlightSearchIndex flightSearchIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int route = 0; route < ROUTES; route++) {
+            for (int flight = 0; flight < FLIGHTS_PER_ROUTE; flight++) {
+                LocalDateTime departure = START.plusHours(flight * 7L);
+                rows.add(new Object[]{"F" + route + "x" + flight, "O" + route, "D" + route,
+                        Timestamp.valueOf(departure), Timestamp.valueOf(departure.plusHours(2))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO flight (flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES (?, ?, ?, ?, ?, 100)", rows);
+        flightSearchIndex.evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM flight");
+        flightSearchIndex.evictAll();
+    }
+
+    @Test
+    void compareIndexWithSpecification() {
+        PageRequest pageRequest = PageRequest.of(0, 20, Sort.by("departureTime"));
+        Function<FlightSearchCriteria, Page<FlightDto>> specification = criteria -> transactionTemplate.execute(status ->
+                flightRepository.findAll(FlightSpecs.createSpecs(criteria), pageRequest).map(FlightMapper::toDto));
+        Function<FlightSearchCriteria, Page<FlightDto>> index = criteria -> flightService.search(pageRequest, criteria);
+
+        FlightSearchCriteria sample = criteria(0);
+        assertEquals(specification.apply(sample).getContent(), index.apply(sample).getContent());
+        assertEquals(specification.apply(sample).getTotalElements(), index.apply(sample).getTotalElements());
+
+        // The first rounds only warm up the JIT and the connection pool.
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("round %d  specification: %d searches/s, index: %d searches/s (%d flights)%n",
+                    round, run(specification), run(index), ROUTES * FLIGHTS_PER_ROUTE);
+        }
+    }
+
+    private long run(Function<FlightSearchCriteria, Page<FlightDto>> search) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SEARCHES; i++) {
+            search.apply(criteria(i));
+        }
+        return SEARCHES * 1_000_000_000L / (System.nanoTime() - start);
+    }
+
+    private static FlightSearchCriteria criteria(int i) {
+        int route = i % ROUTES;
+        LocalDateTime from = START.plusDays(i % 30);
+        return FlightSearchCriteria.builder()
+                .origin("O" + route)
+                .destination("D" + route)
+                .departureTimeFrom(from)
+                .departureTimeTo(from.plusDays(14))
+                .build();
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.airlineapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import org.example.airlineapi.mapper.FlightMapper;
+import org.example.airlineapi.mapper.PersonMapper;
+import org.example.airlineapi.mapper.TicketMapper;
+import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.flight.FlightSearchCriteria;
+import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.example.airlineapi.model.page.KeysetCursor;
+import org.example.airlineapi.model.page.KeysetPage;
+import org.example.airlineapi.model.page.SlicedPage;
+import org.example.airlineapi.model.person.Person;
+import org.example.airlineapi.model.person.PersonSearchCriteria;
+import org.example.airlineapi.model.ticket.Ticket;
+import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.dto.TicketDto;
+import org.example.airlineapi.repository.projection.TicketRow;
+import org.example.airlineapi.service.inventory.SeatBitmap;
+import org.example.airlineapi.utils.Specification.FlightSpecs;
+import org.example.airlineapi.utils.Specification.PersonSpecs;
+import org.example.airlineapi.utils.Specification.TicketSpecs;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times the CPU-bound steps every request goes through: the free seat scan behind
+ * {@code FlightService.getFreeSeat}, building and applying the search Specifications, the mappers and the Jackson
+ * serialization of the responses. Each is reported in ns/op and B/op next to the numbers in
+ * {@code benchmark/hot-path-baseline.tsv}; copy {@code target/benchmark/hot-path-results.tsv} over that file to
+ * record a new baseline, on the same machine as the one it is compared with. B/op repeats exactly from run to run;
+ * ns/op can move by tens of percent on a busy machine, so only a change that holds over several runs means anything.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:hot-path-benchmark", "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+class HotPathBenchmark {
+    private static final String BASELINE = "/benchmark/hot-path-baseline.tsv";
+    private static final Path RESULTS = Path.of("target", "benchmark", "hot-path-results.tsv");
+    private static final int[] SEATS = {100, 400, 850};
+    private static final double[] SOLD = {0, 0.5, 0.95};
+    private static final int PAGE_SIZE = 50;
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private static final FlightSearchCriteria FLIGHT_CRITERIA = FlightSearchCriteria.builder()
+            .flightNumber(123L)
+            .origin("New York")
+            .destination("Los Angeles")
+            .departureTimeFrom(DEPARTURE)
+            .departureTimeTo(DEPARTURE.plusDays(14))
+            .arrivalTimeFrom(DEPARTURE)
+            .arrivalTimeTo(DEPARTURE.plusDays(15))
+            .availableSeats(2)
+            .build();
+    private static final PersonSearchCriteria PERSON_CRITERIA = PersonSearchCriteria.builder()
+            .firstName("Alice")
+            .lastName("Doe")
+            .email("alice.doe@example.com")
+            .phoneNumber("1234567890")
+            .dateOfBirth(LocalDate.of(1990, 1, 1))
+            .build();
+    private static final TicketSearchCriteria TICKET_CRITERIA = TicketSearchCriteria.builder()
+            .seatNumber(12)
+            .ticketNumber(1001)
+            .price(300)
+            .build();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void measureHotPaths() throws Exception {
+        MicroBenchmark benchmark = new MicroBenchmark(Duration.ofSeconds(1), Duration.ofMillis(500), 5);
+
+        for (int seats : SEATS) {
+            for (double sold : SOLD) {
+                SeatBitmap bitmap = bitmap(seats, (int) (seats * sold));
+                assertEquals(seats - (int) (seats * sold), bitmap.freeSeats(seats).size());
+                benchmark.run("freeSeats[seats=" + seats + ",sold=" + (int) (seats * sold) + "]", () -> bitmap.freeSeats(seats));
+            }
+        }
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        benchmark.run("FlightSpecs.createSpecs", () -> FlightSpecs.createSpecs(FLIGHT_CRITERIA));
+        benchmark.run("FlightSpecs.toPredicate", () -> toPredicate(criteriaBuilder, Flight.class, FlightSpecs.createSpecs(FLIGHT_CRITERIA)));
+        benchmark.run("PersonSpecs.createSpecs", () -> PersonSpecs.createSpecs(PERSON_CRITERIA));
+        benchmark.run("PersonSpecs.toPredicate", () -> toPredicate(criteriaBuilder, Person.class, PersonSpecs.createSpecs(PERSON_CRITERIA)));
+        benchmark.run("TicketSpecs.specsWithFlightId", () -> TicketSpecs.specsWithFlightId(1, TICKET_CRITERIA));
+        benchmark.run("TicketSpecs.toPredicate", () -> toPredicate(criteriaBuilder, Ticket.class, TicketSpecs.specsWithFlightId(1, TICKET_CRITERIA)));
+
+        Flight flight = flight(1);
+        Person person = person(1);
+        Ticket ticket = ticket(1, flight, person);
+        TicketRow row = row(ticket);
+        benchmark.run("FlightMapper.toDto", () -> FlightMapper.toDto(flight));
+        benchmark.run("PersonMapper.toDto", () -> PersonMapper.toDto(person));
+        benchmark.run("TicketMapper.toDto(Ticket)", () -> TicketMapper.toDto(ticket));
+        benchmark.run("TicketMapper.toDto(TicketRow)", () -> TicketMapper.toDto(row));
+
+        List<FlightDto> flights = IntStream.rangeClosed(1, PAGE_SIZE).mapToObj(i -> FlightMapper.toDto(flight(i))).toList();
+        List<TicketDto> tickets = IntStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(i -> TicketMapper.toDto(ticket(i, flight, person(i)))).toList();
+        PageRequest pageRequest = PageRequest.of(0, PAGE_SIZE, Sort.by("departureTime"));
+        PageImpl<FlightDto> flightPage = new PageImpl<>(flights, pageRequest, 1_000);
+        PageImpl<TicketDto> ticketPage = new PageImpl<>(tickets, pageRequest, 1_000);
+        SlicedPage<FlightDto> slicedPage = SlicedPage.<FlightDto>builder().content(flights).size(PAGE_SIZE).hasNext(true).build();
+        KeysetPage<FlightDto> keysetPage = KeysetPage.of(flights, PAGE_SIZE - 1,
+                KeysetCursor.decode("", Sort.by("departureTime"), FlightSpecs.SORTABLE), dto -> dto);
+        benchmark.run("json FlightDto", () -> objectMapper.writeValueAsBytes(flights.get(0)));
+        benchmark.run("json TicketDto", () -> objectMapper.writeValueAsBytes(tickets.get(0)));
+        benchmark.run("json Page<FlightDto>[50]", () -> objectMapper.writeValueAsBytes(flightPage));
+        benchmark.run("json Page<TicketDto>[50]", () -> objectMapper.writeValueAsBytes(ticketPage));
+        benchmark.run("json SlicedPage<FlightDto>[50]", () -> objectMapper.writeValueAsBytes(slicedPage));
+        benchmark.run("json KeysetPage<FlightDto>[49]", () -> objectMapper.writeValueAsBytes(keysetPage));
+
+        benchmark.compare(BASELINE);
+        benchmark.write(RESULTS);
+    }
+
+    private static <T> Object toPredicate(CriteriaBuilder criteriaBuilder, Class<T> domainClass, Specification<T> specs) {
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(domainClass);
+        return specs.toPredicate(query.from(domainClass), query, criteriaBuilder);
+    }
+
+    /**
+     * Seats are sold from the front, the order most bookings fill a flight in.
+     */
+    private static SeatBitmap bitmap(int seats, int sold) {
+        SeatBitmap bitmap = new SeatBitmap(seats);
+        for (int seat = 1; seat <= sold; seat++) {
+            bitmap.occupy(seat);
+        }
+        return bitmap;
+    }
+
+    private static Flight flight(long id) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber("AA" + id)
+                .origin("New York")
+                .destination("Los Angeles")
+                .departureTime(DEPARTURE)
+                .arrivalTime(DEPARTURE.plusHours(6))
+                .numberOfSeats(180)
+                .version(1)
+                .build();
+    }
+
+    private static Person person(long id) {
+        return Person.builder()
+                .id(id)
+                .firstName("Alice")
+                .lastName("Doe")
+                .email("alice" + id + "@example.com")
+                .phoneNumber("1234567890")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .version(1)
+                .build();
+    }
+
+    private static Ticket ticket(long id, Flight flight, Person person) {
+        return Ticket.builder()
+                .id(id)
+                .seatNumber(id)
+                .ticketNumber(String.valueOf(1000 + id))
+                .price(new BigDecimal("300.00"))
+                .version(1)
+                .flight(flight)
+                .person(person)
+                .build();
+    }
+
+    private static TicketRow row(Ticket ticket) {
+        return new TicketRow(ticket.getId(), ticket.getSeatNumber(), ticket.getTicketNumber(), ticket.getPrice(),
+                ticket.getVersion(), ticket.getFlight().getId(), ticket.getFlight().getFlightNumber(),
+                ticket.getFlight().getOrigin(), ticket.getFlight().getDestination(), ticket.getFlight().getVersion(),
+                ticket.getPerson().getFirstName(), ticket.getPerson().getLastName(), ticket.getPerson().getVersion());
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.airlineapi.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.airlineapi.model.person.Person;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Persists a large batch of passengers in a single transaction, once one statement per row as the identity columns
+ * forced and once in JDBC batches of the configured size. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:insert-benchmark", "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+class InsertBatchingBenchmark {
+    private static final int ROWS = 20_000;
+    private static final int FLUSH_EVERY = 500;
+    private static final int ROUNDS = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM person");
+    }
+
+    @Test
+    void compareBatchSizes() {
+        // The first rounds only warm up the JIT and the connection pool.
+        for (int round = 0; round < ROUNDS; round++) {
+            long unbatched = run(1);
+            long batched = run(50);
+
+            System.out.printf("round %d  batch size 1: %d ms, batch size 50: %d ms (%d rows)%n",
+                    round, unbatched / 1_000_000, batched / 1_000_000, ROWS);
+        }
+    }
+
+    private long run(int batchSize) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(Person.builder()
+                        .firstName("Bench")
+                        .lastName("Person")
+                        .email("bench" + i + "@example.com")
+                        .phoneNumber("123456789")
+                        .dateOfBirth(LocalDate.of(1990, 1, 1))
+                        .build());
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT count(*) FROM person", Integer.class));
+        jdbcTemplate.update("DELETE FROM person");
+        return elapsed;
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.airlineapi.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Single-threaded timing of small operations, in the spirit of a JMH average-time benchmark with the GC profiler:
+ * each operation is warmed up, then timed over several fixed-length iterations, and reported as the median
+ * nanoseconds per call, the bytes the calling thread allocated per call and the collections that ran meanwhile.
+ * Results are written as tab separated lines that {@link #compare(String)} reads back as a baseline.
+ */
+class MicroBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final String HEADER = "benchmark\tns/op\tB/op";
+    // Calls per clock read, so the clock stays out of the measurement of the cheapest operations.
+    private static final int BATCH = 64;
+
+    // Every result is written here, so the JIT cannot drop the call that produced it.
+    private static volatile Object sink;
+
+    private final Duration warmup;
+    private final Duration iteration;
+    private final int iterations;
+    private final Map<String, Result> results = new LinkedHashMap<>();
+
+    MicroBenchmark(Duration warmup, Duration iteration, int iterations) {
+        this.warmup = warmup;
+        this.iteration = iteration;
+        this.iterations = iterations;
+    }
+
+    void run(String name, Callable<?> operation) throws Exception {
+        measure(operation, warmup);
+
+        double[] nanosPerOp = new double[iterations];
+        double bytesPerOp = 0;
+        long collections = collectionCount();
+        for (int i = 0; i < iterations; i++) {
+            Iteration measured = measure(operation, iteration);
+            nanosPerOp[i] = (double) measured.nanos() / measured.ops();
+            bytesPerOp += (double) measured.bytes() / measured.ops() / iterations;
+        }
+        Arrays.sort(nanosPerOp);
+
+        Result result = new Result(nanosPerOp[iterations / 2], bytesPerOp, collectionCount() - collections);
+        results.put(name, result);
+        System.out.printf("%-48s %12.1f ns/op %12.1f B/op %6d gc%n", name, result.nanosPerOp(), result.bytesPerOp(), result.collections());
+    }
+
+    /**
+     * Prints every result next to the one recorded for it in the baseline resource.
+     */
+    void compare(String baselineResource) {
+        Map<String, Result> baseline = read(baselineResource);
+        System.out.printf("%n%-48s %12s %12s %8s %12s %12s%n", "benchmark", "ns/op", "baseline", "change", "B/op", "baseline");
+        results.forEach((name, result) -> {
+            Result before = baseline.get(name);
+            if (before == null) {
+                System.out.printf("%-48s %12.1f %12s %8s %12.1f %12s%n", name, result.nanosPerOp(), "-", "-", result.bytesPerOp(), "-");
+            } else {
+                System.out.printf("%-48s %12.1f %12.1f %+7.0f%% %12.1f %12.1f%n", name, result.nanosPerOp(), before.nanosPerOp(),
+                        (result.nanosPerOp() / before.nanosPerOp() - 1) * 100, result.bytesPerOp(), before.bytesPerOp());
+            }
+        });
+    }
+
+    void write(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Java " + Runtime.version() + ", " + Runtime.getRuntime().availableProcessors() + " cpus");
+        lines.add(HEADER);
+        results.forEach((name, result) -> lines.add(String.format(Locale.ROOT, "%s\t%.1f\t%.1f", name, result.nanosPerOp(), result.bytesPerOp())));
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private static Iteration measure(Callable<?> operation, Duration length) throws Exception {
+        long ops = 0;
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + length.toNanos();
+        long now;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                sink = operation.call();
+            }
+            ops += BATCH;
+            now = System.nanoTime();
+        } while (now < deadline);
+        return new Iteration(ops, now - start, THREADS.getCurrentThreadAllocatedBytes() - bytes);
+    }
+
+    private static long collectionCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static Map<String, Result> read(String resource) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (InputStream in = MicroBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return results;
+            }
+            new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank() && !line.startsWith("#") && !line.equals(HEADER))
+                    .map(line -> line.split("\t"))
+                    .forEach(columns -> results.put(columns[0],
+                            new Result(Double.parseDouble(columns[1]), Double.parseDouble(columns[2]), 0)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return results;
+    }
+
+    private record Iteration(long ops, long nanos, long bytes) {
+    }
+
+    record Result(double nanosPerOp, double bytesPerOp, long collections) {
+    }
+}
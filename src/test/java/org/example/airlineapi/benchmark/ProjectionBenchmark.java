@@ -0,0 +1,163 @@
+package org.example.airlineapi.benchmark;
+
+import org.example.airlineapi.mapper.FlightMapper;
+import org.example.airlineapi.mapper.TicketMapper;
+import org.example.airlineapi.model.flight.FlightSearchCriteria;
+import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.service.FlightService;
+import org.example.airlineapi.service.TicketService;
+import org.example.airlineapi.utils.Specification.FlightSpecs;
+import org.example.airlineapi.utils.Specification.TicketSpecs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reads the same flight search and ticket listing pages once by loading entities and mapping them, as the services
+ * did before, and once through the services' DTO projections, and reports the requests per second and the bytes the
+ * calling thread allocates per request for each. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:projection-benchmark", "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+class ProjectionBenchmark {
+    private static final int ROUTES = 20;
+    private static final int FLIGHTS = 400;
+    private static final int PERSONS = 2_000;
+    private static final int TICKETS_PER_FLIGHT = 100;
+    private static final int REQUESTS = 2_000;
+    private static final int ROUNDS = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final PageRequest PAGE = PageRequest.of(0, 50, Sort.by("departureTime"));
+    private static final PageRequest TICKET_PAGE = PageRequest.of(0, 50, Sort.by("seatNumber"));
+    private static final TicketSearchCriteria ANY_TICKET = TicketSearchCriteria.builder().build();
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> flights = new ArrayList<>();
+        List<Object[]> persons = new ArrayList<>();
+        List<Object[]> tickets = new ArrayList<>();
+        for (int flight = 1; flight <= FLIGHTS; flight++) {
+            LocalDateTime departure = START.plusHours(flight);
+            flights.add(new Object[]{flight, "F" + flight, "O" + flight % ROUTES, "D" + flight % ROUTES,
+                    Timestamp.valueOf(departure), Timestamp.valueOf(departure.plusHours(2))});
+            for (int seat = 1; seat <= TICKETS_PER_FLIGHT; seat++) {
+                tickets.add(new Object[]{(flight - 1) * TICKETS_PER_FLIGHT + seat, seat, "T" + flight + "-" + seat,
+                        flight, (flight * 7 + seat) % PERSONS + 1});
+            }
+        }
+        for (int person = 1; person <= PERSONS; person++) {
+            persons.add(new Object[]{person, "First" + person, "Last" + person, "person" + person + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO flight (id, flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 200)", flights);
+        jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name, email, phone_number, date_of_birth) " +
+                "VALUES (?, ?, ?, ?, '123456789', '1990-01-01')", persons);
+        jdbcTemplate.batchUpdate("INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id) " +
+                "VALUES (?, ?, ?, 100, ?, ?)", tickets);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ticket");
+        jdbcTemplate.update("DELETE FROM person");
+        jdbcTemplate.update("DELETE FROM flight");
+    }
+
+    @Test
+    void compareFlightSearch() {
+        // Origin-only criteria are not covered by the in-memory route index, so both sides query the database.
+        IntFunction<Page<?>> entities = i -> transactionTemplate.execute(status -> flightRepository
+                .findAll(FlightSpecs.createSpecs(flightCriteria(i)), PAGE)
+                .map(FlightMapper::toDto));
+        IntFunction<Page<?>> projection = i -> flightService.search(PAGE, flightCriteria(i));
+
+        compare("flight search", entities, projection);
+    }
+
+    @Test
+    void compareTicketListing() {
+        IntFunction<Page<?>> entities = i -> transactionTemplate.execute(status -> ticketRepository
+                .findAll(TicketSpecs.specsWithFlightId(i % FLIGHTS + 1, ANY_TICKET), TICKET_PAGE)
+                .map(TicketMapper::toDto));
+        IntFunction<Page<?>> projection = i -> ticketService.getAllByFlightId(i % FLIGHTS + 1, TICKET_PAGE, ANY_TICKET);
+
+        compare("ticket listing", entities, projection);
+    }
+
+    private static void compare(String name, IntFunction<Page<?>> entities, IntFunction<Page<?>> projection) {
+        assertEquals(entities.apply(0).getContent(), projection.apply(0).getContent());
+        assertEquals(entities.apply(0).getTotalElements(), projection.apply(0).getTotalElements());
+
+        // The first rounds only warm up the JIT and the connection pool.
+        for (int round = 0; round < ROUNDS; round++) {
+            Result entity = run(entities);
+            Result projected = run(projection);
+            System.out.printf("round %d  %s  entities: %d requests/s, %d KB/request; projection: %d requests/s, %d KB/request%n",
+                    round, name, entity.perSecond(), entity.bytesPerRequest() / 1024,
+                    projected.perSecond(), projected.bytesPerRequest() / 1024);
+        }
+    }
+
+    /**
+     * Counts only what the calling thread allocates; every request here runs on it.
+     */
+    private static Result run(IntFunction<Page<?>> request) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.apply(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Result(REQUESTS * 1_000_000_000L / elapsed, allocated / REQUESTS);
+    }
+
+    private static FlightSearchCriteria flightCriteria(int i) {
+        return FlightSearchCriteria.builder()
+                .origin("O" + i % ROUTES)
+                .build();
+    }
+
+    private record Result(long perSecond, long bytesPerRequest) {
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.airlineapi.benchmark;
+
+import org.example.airlineapi.AirLineApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the application once on Tomcat's platform-thread pool and once on virtual threads, drives both with the
+ * same mix of bookings on a few contended flights and reads served from memory, and reports the throughput and the
+ * p99 latency of each. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadModeLoadBenchmark {
+    private static final int FLIGHTS = 200;
+    private static final int HOT_FLIGHTS = 4;
+    private static final int PERSONS = 20_000;
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS = 20_000;
+    // Every fifth request books a seat.
+    private static final int BOOKING_EVERY = 5;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void compareThreadModes() throws Exception {
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                seed(context.getBean(JdbcTemplate.class));
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+                // The first rounds only warm up the JIT, the caches and the connection pool.
+                AtomicInteger bookings = new AtomicInteger();
+                for (int round = 0; round < ROUNDS; round++) {
+                    Result result = run(baseUrl, bookings);
+                    System.out.printf("round %d  %s threads: %d requests/s, p99 booking %d ms, p99 read %d ms, %d failed%n",
+                            round, virtualThreads ? "virtual" : "platform", result.perSecond(),
+                            result.bookingP99Millis(), result.readP99Millis(), result.failed());
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(AirLineApiApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:thread-mode-" + virtualThreads,
+                        "spring.jpa.show-sql=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "airline.entity-cache.enabled=true",
+                        "airline.dto-cache.enabled=true")
+                .run();
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp departure = Timestamp.valueOf(LocalDateTime.of(2030, 1, 1, 10, 0));
+        List<Object[]> flights = new ArrayList<>();
+        for (int i = 1; i <= FLIGHTS; i++) {
+            flights.add(new Object[]{i, "F" + i, "O" + i % 20, "D" + i % 20, departure, departure});
+        }
+        List<Object[]> persons = new ArrayList<>();
+        for (int i = 1; i <= PERSONS; i++) {
+            persons.add(new Object[]{i, "person" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO flight (id, flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 100000)", flights);
+        jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name, email, phone_number, date_of_birth) " +
+                "VALUES (?, 'First', 'Last', ?, '123456789', '1990-01-01')", persons);
+        jdbcTemplate.update("INSERT INTO ticket_number_counter (flight_id, next_value) SELECT id, 1 FROM flight");
+    }
+
+    /**
+     * Each client thread sends its share of the requests one after another, like a user waiting for every answer.
+     */
+    private static Result run(String baseUrl, AtomicInteger bookings) throws InterruptedException {
+        long[] bookingNanos = new long[REQUESTS];
+        long[] readNanos = new long[REQUESTS];
+        AtomicInteger bookingCount = new AtomicInteger();
+        AtomicInteger readCount = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+
+        long start = System.nanoTime();
+        // Closing the clients first waits for every request before the HTTP client shuts down.
+        try (HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < CLIENTS; client++) {
+                clients.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < REQUESTS; i = next.getAndIncrement()) {
+                        boolean booking = i % BOOKING_EVERY == 0;
+                        HttpRequest request = booking ? booking(baseUrl, bookings.incrementAndGet()) : read(baseUrl, i);
+                        long sent = System.nanoTime();
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 400) {
+                                failed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                        long elapsed = System.nanoTime() - sent;
+                        if (booking) {
+                            bookingNanos[bookingCount.getAndIncrement()] = elapsed;
+                        } else {
+                            readNanos[readCount.getAndIncrement()] = elapsed;
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(REQUESTS, bookingCount.get() + readCount.get());
+        return new Result(REQUESTS * 1_000_000_000L / elapsed,
+                p99Millis(bookingNanos, bookingCount.get()), p99Millis(readNanos, readCount.get()), failed.get());
+    }
+
+    private static HttpRequest booking(String baseUrl, int booking) {
+        // A new passenger and seat every time, spread over a few flights whose rows every booking locks.
+        String body = "{\"personId\": " + booking + ", \"seatNumber\": " + booking + ", \"price\": 100}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/flights/" + (booking % HOT_FLIGHTS + 1) + "/tickets"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest read(String baseUrl, int i) {
+        if (i % 2 == 0) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/flights/" + (i % FLIGHTS + 1))).GET().build();
+        }
+        String criteria = "{\"origin\": \"O" + i % 20 + "\", \"destination\": \"D" + i % 20 + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/flights/search"))
+                .header("Content-Type", "application/json")
+                .method("GET", HttpRequest.BodyPublishers.ofString(criteria))
+                .build();
+    }
+
+    private static long p99Millis(long[] nanos, int count) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        return count == 0 ? 0 : sorted[(int) Math.ceil(count * 0.99) - 1] / 1_000_000;
+    }
+
+    private record Result(long perSecond, long bookingP99Millis, long readP99Millis, int failed) {
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.airlineapi.config.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedStorageAccessTest {
+
+    @Test
+    void testGetFromCache_ShouldReturnEntryWithinTtl() {
+        BoundedStorageAccess storage = new BoundedStorageAccess(10, Duration.ofMinutes(1));
+        storage.putIntoCache(1L, "flight", null);
+
+        assertEquals("flight", storage.getFromCache(1L, null));
+        assertTrue(storage.contains(1L));
+    }
+
+    @Test
+    void testGetFromCache_ShouldForgetEntryAfterTtl() {
+        BoundedStorageAccess storage = new BoundedStorageAccess(10, Duration.ZERO);
+        storage.putIntoCache(1L, "flight", null);
+
+        assertNull(storage.getFromCache(1L, null));
+        assertFalse(storage.contains(1L));
+    }
+
+    @Test
+    void testPutIntoCache_ShouldDropLeastRecentlyUsedEntry() {
+        BoundedStorageAccess storage = new BoundedStorageAccess(2, Duration.ofMinutes(1));
+        storage.putIntoCache(1L, "a", null);
+        storage.putIntoCache(2L, "b", null);
+        storage.getFromCache(1L, null);
+        storage.putIntoCache(3L, "c", null);
+
+        assertEquals("a", storage.getFromCache(1L, null));
+        assertNull(storage.getFromCache(2L, null));
+        assertEquals("c", storage.getFromCache(3L, null));
+    }
+
+    @Test
+    void testEvictData_ShouldRemoveEntries() {
+        BoundedStorageAccess storage = new BoundedStorageAccess(10, Duration.ofMinutes(1));
+        storage.putIntoCache(1L, "a", null);
+        storage.putIntoCache(2L, "b", null);
+
+        storage.evictData(1L);
+        assertNull(storage.getFromCache(1L, null));
+        assertEquals("b", storage.getFromCache(2L, null));
+
+        storage.evictData();
+        assertNull(storage.getFromCache(2L, null));
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.airlineapi.controller;
+
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class BulkImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatHoldRegistry seatHoldRegistry;
+
+    @AfterEach
+    void tearDown() {
+        seatInventory.evictAll();
+        seatHoldRegistry.evictAll();
+    }
+
+    @Test
+    void importPersons_Ndjson_ShouldImportValidRowsAndReportTheRest() throws Exception {
+        String body = """
+                {"firstName":"Emma","lastName":"Stone","email":"emma@example.com","phoneNumber":"123456789","dateOfBirth":"1990-01-01"}
+                {"firstName":"Frank",
+
+                {"firstName":"grace","lastName":"Hopper","email":"grace@example.com","phoneNumber":"123456789","dateOfBirth":"1990-01-01"}
+                {"firstName":"Henry","lastName":"Ford","email":"henry@example.com","phoneNumber":"123456789","dateOfBirth":"1990-01-01"}
+                """;
+
+        mockMvc.perform(post("/api/v1/persons/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].fields[0].field").value("firstName"))
+                .andExpect(jsonPath("$.errors[1].fields[0].code").value(startsWith("PATTERN_MISMATCH")));
+
+        mockMvc.perform(get("/api/v1/persons"))
+                .andExpect(jsonPath("$", hasSize(6)));
+    }
+
+    @Test
+    void importFlights_Csv_ShouldImportFlightsWithTicketNumberCounters() throws Exception {
+        String body = """
+                flightNumber,origin,destination,departureTime,arrivalTime,availableSeats\r
+                DD100,Warsaw,Oslo,2099-01-01T10:00:00,2099-01-01T12:00:00,120\r
+                "EE200","Berlin","Rome",2099-01-02T10:00:00,2099-01-02T12:00:00,"80"\r
+                FF300,Paris,Madrid,2099-01-03T10:00:00,2099-01-03T12:00:00\r
+                GG400,Paris,Madrid,2099-01-03T10:00:00,2099-01-03T12:00:00,-5\r
+                """;
+
+        mockMvc.perform(post("/api/v1/flights/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[0].message").value("Expected 6 fields but found 5"))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[1].fields[0].field").value("availableSeats"));
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM ticket_number_counter c " +
+                "JOIN flight f ON f.id = c.flight_id WHERE f.flight_number IN ('DD100', 'EE200')", Integer.class));
+    }
+
+    @Test
+    void importPersons_RowRefusedByDatabase_ShouldNotReportDatabaseMessage() throws Exception {
+        String body = """
+                {"firstName":"Emma","lastName":"Stone","email":"emma@example.com","phoneNumber":"123456789","dateOfBirth":"1990-01-01"}
+                {"firstName":"Ivan","lastName":"Long","email":"ivan.with.an.address.longer.than.the.column@example.com","phoneNumber":"123456789","dateOfBirth":"1990-01-01"}
+                """;
+
+        mockMvc.perform(post("/api/v1/persons/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Row was refused by the database"));
+    }
+
+    @Test
+    void importTickets_ShouldIsolateRefusedRowsOfAChunk() throws Exception {
+        String body = """
+                {"seatNumber":1,"price":100,"personId":1}
+                {"seatNumber":2,"price":100,"personId":2}
+                {"seatNumber":1,"price":100,"personId":3}
+                {"seatNumber":4,"price":100,"personId":99}
+                """;
+
+        mockMvc.perform(post("/api/v1/flights/3/tickets/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].message").value("Person with id 99 not found"));
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT sold_seats FROM flight WHERE id = 3", Integer.class));
+    }
+
+    @Test
+    void importTickets_FlightNotFound_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/v1/flights/99/tickets/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"seatNumber\":1,\"price\":100,\"personId\":1}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importPersons_UnsupportedFormat_ShouldReturnUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/v1/persons/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<persons/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.inventory.SoldSeatsReconciler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"airline.booking.mode=CONSTRAINT", "airline.sold-seats.recount-delay=PT1H"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class ConstraintBookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private SoldSeatsReconciler soldSeatsReconciler;
+
+    @AfterEach
+    void tearDown() {
+        seatInventory.evictAll();
+    }
+
+    @Test
+    void createTicket_ShouldCreateTicketForFlight() throws Exception {
+        book(1, 4, 3)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.seatNumber").value(3))
+                .andExpect(jsonPath("$.ticketNumber", matchesPattern("AA123-\\d+")))
+                .andExpect(jsonPath("$.person.firstName").value("David"))
+                .andExpect(jsonPath("$.flight.flightNumber").value("AA123"));
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasSize(147)));
+    }
+
+    @Test
+    void createTicket_ShouldCountSoldSeatOnlyAfterCommit() throws Exception {
+        book(1, 4, 3)
+                .andExpect(status().isCreated());
+        assertEquals(2, flightRepository.findSoldSeatsById(1L).orElseThrow());
+
+        soldSeatsReconciler.recountPending();
+        assertEquals(3, flightRepository.findSoldSeatsById(1L).orElseThrow());
+    }
+
+    @Test
+    void createTicket_SeatNumberAlreadyTaken_BadRequest() throws Exception {
+        book(1, 4, 1)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Flight with id 1 already has a ticket with seat number 1"));
+    }
+
+    @Test
+    void createTicket_PersonAlreadyOnFlight_BadRequest() throws Exception {
+        book(1, 1, 3)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Person with id 1 already has a ticket for flight with id 1"));
+    }
+
+    @Test
+    void createTicket_SeatOutsideFlight_BadRequest() throws Exception {
+        book(1, 4, 151)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Flight with id 1 has no seat number 151"));
+    }
+
+    @Test
+    void createTicket_FlightNotFound_NotFound() throws Exception {
+        book(999, 4, 3)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createTicket_PersonNotFound_NotFound() throws Exception {
+        book(1, 999, 3)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Person with id 999 not found"));
+    }
+
+    private ResultActions book(long flightId, long personId, long seatNumber) throws Exception {
+        CreateTicketCommand command = CreateTicketCommand.builder()
+                .personId(personId)
+                .seatNumber(seatNumber)
+                .price(BigDecimal.valueOf(100.0))
+                .build();
+
+        return mockMvc.perform(post("/api/v1/flights/{flightId}/tickets", flightId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(command)));
+    }
+}
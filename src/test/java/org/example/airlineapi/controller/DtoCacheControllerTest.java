@@ -0,0 +1,115 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.airlineapi.model.cache.dto.CacheStatsDto;
+import org.example.airlineapi.model.person.command.CreatePersonCommand;
+import org.example.airlineapi.service.cache.DtoCache;
+import org.example.airlineapi.service.cache.PersonDtoCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "airline.dto-cache.enabled=true")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class DtoCacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PersonDtoCache personDtoCache;
+
+    @Autowired
+    private List<DtoCache<?>> dtoCaches;
+
+    @AfterEach
+    void tearDown() {
+        dtoCaches.forEach(DtoCache::evictAll);
+    }
+
+    @Test
+    void getPersonById_SecondRead_ShouldBeServedFromCache() throws Exception {
+        CacheStatsDto before = personDtoCache.getStats();
+        mockMvc.perform(get("/api/v1/persons/2"))
+                .andExpect(status().isOk());
+        // Changed behind the service's back, so only a read that skipped the database still sees Bob.
+        jdbcTemplate.update("UPDATE person SET first_name = 'Robert' WHERE id = 2");
+
+        mockMvc.perform(get("/api/v1/persons/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Bob"));
+
+        CacheStatsDto after = personDtoCache.getStats();
+        assertEquals(1, after.getHits() - before.getHits());
+        assertEquals(1, after.getMisses() - before.getMisses());
+    }
+
+    @Test
+    void updatePerson_ShouldInvalidateCachedPerson() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/2"))
+                .andExpect(jsonPath("$.firstName").value("Bob"));
+
+        CreatePersonCommand command = CreatePersonCommand.builder()
+                .firstName("Robert")
+                .lastName("Smith")
+                .email("bob.smith@example.com")
+                .phoneNumber("098765432")
+                .dateOfBirth(LocalDate.of(1995, 2, 2))
+                .build();
+        mockMvc.perform(put("/api/v1/persons/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/persons/2"))
+                .andExpect(jsonPath("$.firstName").value("Robert"));
+    }
+
+    @Test
+    void deleteFlight_ShouldInvalidateCachedFlight() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/v1/flights/3"))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/api/v1/flights/3"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getStats_ShouldListEveryCache() throws Exception {
+        mockMvc.perform(get("/api/v1/caches"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(containsInAnyOrder("flights", "persons", "tickets")))
+                .andExpect(jsonPath("$[0].maxEntries").value(10000));
+    }
+}
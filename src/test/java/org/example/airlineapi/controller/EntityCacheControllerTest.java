@@ -0,0 +1,159 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.flight.command.CreateFlightCommand;
+import org.example.airlineapi.model.flight.command.FlightIdsCommand;
+import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"airline.entity-cache.enabled=true", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class EntityCacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void update_SecondWrite_ShouldLoadFlightFromCache() throws Exception {
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(flightCommand("Denver"))))
+                .andExpect(status().isOk());
+        statistics.clear();
+
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(flightCommand("Boston"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.destination").value("Boston"));
+
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void getAllByFlightId_ShouldReadPassengersWithoutLoadingEntities() throws Exception {
+        String criteria = objectMapper.writeValueAsString(TicketSearchCriteria.builder().build());
+        mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].person.lastName").exists())
+                .andExpect(jsonPath("$.content[0].flight.flightNumber").value("BB456"));
+
+        // The tickets, their passengers and their flight come from one projected statement; the page is not
+        // full, so no count follows.
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void update_RowChangedByAnotherInstance_ShouldConflictAndDropCachedFlight() throws Exception {
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(flightCommand("Denver"))))
+                .andExpect(status().isOk());
+        jdbcTemplate.update("UPDATE flight SET origin = 'Boston', version = version + 1 WHERE id = 3");
+
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(flightCommand("Chicago"))))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/v1/flights/3"))
+                .andExpect(jsonPath("$.origin").value("Boston"))
+                .andExpect(jsonPath("$.destination").value("Denver"));
+    }
+
+    @Test
+    void createTicket_ShouldKeepCachedFlightAndCountFreeSeatsAfresh() throws Exception {
+        String ids = objectMapper.writeValueAsString(new FlightIdsCommand(List.of(3L)));
+        mockMvc.perform(post("/api/v1/flights/free-seats")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ids))
+                .andExpect(jsonPath("$[0].freeSeats").value(180));
+        mockMvc.perform(get("/api/v1/flights/3/free-seats"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/flights/3/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateTicketCommand.builder()
+                                .personId(1)
+                                .seatNumber(10)
+                                .price(BigDecimal.valueOf(100.0))
+                                .build())))
+                .andExpect(status().isCreated());
+        statistics.clear();
+
+        mockMvc.perform(post("/api/v1/flights/free-seats")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ids))
+                .andExpect(jsonPath("$[0].freeSeats").value(179));
+        // The counted booking neither evicted the flight nor the cached seat count query behind the seat map.
+        assertTrue(entityManagerFactory.getCache().contains(Flight.class, 3L));
+        mockMvc.perform(get("/api/v1/flights/3/free-seats"))
+                .andExpect(status().isOk());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    private static CreateFlightCommand flightCommand(String destination) {
+        return new CreateFlightCommand(
+                "CC789", "Miami", destination,
+                LocalDateTime.of(2030, 6, 4, 10, 0),
+                LocalDateTime.of(2030, 6, 4, 14, 0),
+                180
+        );
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.airlineapi.model.flight.command.CreateFlightCommand;
+import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.command.UpdateTicketPersonCommand;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the statements of the paths that read or check tickets, so none of them grows with the page size or with
+ * the number of tickets behind a flight or passenger.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class FetchPlanControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private String criteria;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        criteria = objectMapper.writeValueAsString(TicketSearchCriteria.builder().build());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void getAllByFlightId_Sliced_ShouldCostThreeStatementsWhateverThePageSize(int size) throws Exception {
+        mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .param("count", "NONE")
+                        .param("size", String.valueOf(size))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(size))
+                .andExpect(jsonPath("$.content[0].person.lastName").exists());
+
+        // The tickets, then their passengers and their flight, each batch-fetched in one statement.
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllByPersonId_Keyset_ShouldFetchFlightsWithTickets() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/1/tickets")
+                        .param("cursor", "")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].flight.flightNumber").value("AA123"))
+                .andExpect(jsonPath("$.content[1].flight.flightNumber").value("BB456"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updatePerson_ShouldLoadTicketWithFlightAndPersonTogether() throws Exception {
+        String command = objectMapper.writeValueAsString(UpdateTicketPersonCommand.builder()
+                .personId(4L)
+                .build());
+        mockMvc.perform(put("/api/v1/flights/1/tickets/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(command))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.person.firstName").value("David"));
+
+        // The ticket with its flight and passenger, the new passenger under lock, the duplicate check, the update.
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 20_000})
+    void update_FlightWithTickets_ShouldCheckTicketsWithoutLoadingThem(int tickets) throws Exception {
+        seedTickets(tickets);
+
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateFlightCommand(
+                                "CC789", "Miami", "Denver",
+                                LocalDateTime.of(2030, 6, 4, 10, 0),
+                                LocalDateTime.of(2030, 6, 4, 14, 0),
+                                180))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Flight with id 3 has tickets. Cannot update flight with sold ticket."));
+
+        // The flight and one exists query.
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 20_000})
+    void delete_FlightWithTickets_ShouldDeleteTicketsInOneStatement(int tickets) throws Exception {
+        seedTickets(tickets);
+
+        mockMvc.perform(delete("/api/v1/flights/3"))
+                .andExpect(status().isNoContent());
+
+        // The flight, the bulk delete of its tickets and the delete of the flight.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM ticket WHERE flight_id = 3", Integer.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 20_000})
+    void delete_PersonWithTickets_ShouldCheckTicketsWithoutLoadingThem(int tickets) throws Exception {
+        seedTickets(tickets);
+
+        mockMvc.perform(delete("/api/v1/persons/4"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Person with id 4 has tickets. Please delete tickets first."));
+
+        // The person and one exists query.
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    /**
+     * Books {@code count} new passengers on flight 3 and passenger 4 on {@code count} new flights.
+     */
+    private void seedTickets(int count) {
+        List<Object[]> persons = new ArrayList<>();
+        List<Object[]> flights = new ArrayList<>();
+        List<Object[]> tickets = new ArrayList<>();
+        Timestamp departure = Timestamp.valueOf(LocalDateTime.of(2030, 1, 1, 0, 0));
+        for (int i = 1; i <= count; i++) {
+            persons.add(new Object[]{1000 + i, "person" + i + "@example.com"});
+            flights.add(new Object[]{1000 + i, "F" + i, departure, departure});
+            tickets.add(new Object[]{1000 + 2 * i, i, 3, 1000 + i});
+            tickets.add(new Object[]{1001 + 2 * i, 1, 1000 + i, 4});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name, email, phone_number, date_of_birth) " +
+                "VALUES (?, 'First', 'Last', ?, '123456789', '1990-01-01')", persons);
+        jdbcTemplate.batchUpdate("INSERT INTO flight (id, flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES (?, ?, 'Origin', 'Destination', ?, ?, 200)", flights);
+        jdbcTemplate.batchUpdate("INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id) " +
+                "VALUES (?, ?, 'T', 100, ?, ?)", tickets);
+        statistics.clear();
+    }
+}
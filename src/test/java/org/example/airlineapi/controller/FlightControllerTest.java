@@ -1,34 +1,54 @@
 package org.example.airlineapi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.airlineapi.model.flight.FlightSearchCriteria;
 import org.example.airlineapi.model.flight.command.CreateFlightCommand;
+import org.example.airlineapi.model.flight.command.FlightIdsCommand;
 import org.example.airlineapi.model.flight.command.UpdateFlightTimeCommand;
+import org.example.airlineapi.model.person.command.CreatePersonCommand;
 import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
 import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
 import org.example.airlineapi.model.ticket.command.UpdateTicketPersonCommand;
 import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.inventory.SoldSeatsReconciler;
+import org.example.airlineapi.service.paging.ApproximateCountCache;
+import org.example.airlineapi.service.search.FlightSearchIndex;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -39,6 +59,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
 class FlightControllerTest {
     private final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private final LocalDateTime DEPARTURE = LocalDate.now().plusYears(1).atTime(10, 0);
 
     @Autowired
     private MockMvc mockMvc;
@@ -49,6 +70,28 @@ class FlightControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SoldSeatsReconciler soldSeatsReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApproximateCountCache approximateCountCache;
+
+    @Autowired
+    private FlightSearchIndex flightSearchIndex;
+
+    @AfterEach
+    void tearDown() {
+        seatInventory.evictAll();
+        approximateCountCache.evictAll();
+        flightSearchIndex.evictAll();
+    }
+
     @Test
     void getAll_ShouldReturnListOfFlights() throws Exception {
         mockMvc.perform(get("/api/v1/flights"))
@@ -57,6 +100,64 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$", hasSize(3)));
     }
 
+    @Test
+    void getAll_Ndjson_ShouldStreamOneFlightPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/flights").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals("AA123", objectMapper.readTree(lines.get(0)).get("flightNumber").asText());
+    }
+
+    @Test
+    void search_Ndjson_ShouldStreamEveryMatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/flights/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(FlightSearchCriteria.builder()
+                                .origin("Chicago")
+                                .build())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(1, lines.size());
+        assertEquals("BB456", objectMapper.readTree(lines.get(0)).get("flightNumber").asText());
+    }
+
+    @Test
+    void getAllByFlightId_Ndjson_ShouldStreamEveryTicketInSortOrder() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("sort", "seatNumber,desc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TicketSearchCriteria.builder().build())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals(5, objectMapper.readTree(lines.get(0)).get("seatNumber").asLong());
+        assertEquals("Bob", objectMapper.readTree(lines.get(0)).get("person").get("firstName").asText());
+    }
+
     @Test
     void search_ShouldReturnPageOfFlights() throws Exception {
         FlightSearchCriteria criteria = FlightSearchCriteria.builder().build();
@@ -70,6 +171,180 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(3)));
     }
 
+    @Test
+    void search_ByRoute_ShouldSeeFlightsCreatedAfterIndexWasLoaded() throws Exception {
+        String criteria = objectMapper.writeValueAsString(FlightSearchCriteria.builder()
+                .origin("Chicago")
+                .destination("Denver")
+                .build());
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+
+        CreateFlightCommand command = new CreateFlightCommand(
+                "DD123", "Chicago", "Denver",
+                LocalDateTime.of(2030, 12, 4, 10, 0),
+                LocalDateTime.of(2030, 12, 4, 14, 0),
+                120
+        );
+        mockMvc.perform(post("/api/v1/flights")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].flightNumber").value("DD123"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void search_WithCursor_ShouldWalkPagesBySeekingPastTheLastRow() throws Exception {
+        String criteria = objectMapper.writeValueAsString(FlightSearchCriteria.builder().build());
+        String firstPage = mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("cursor", "")
+                        .param("size", "2")
+                        .param("sort", "departureTime,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].flightNumber").value("CC789"))
+                .andExpect(jsonPath("$.content[1].flightNumber").value("BB456"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].flightNumber").value("AA123"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void search_CountNone_ShouldReturnSliceWithoutTotal() throws Exception {
+        String criteria = objectMapper.writeValueAsString(FlightSearchCriteria.builder().build());
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("count", "NONE")
+                        .param("size", "2")
+                        .param("sort", "departureTime"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.approximateTotal").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("count", "NONE")
+                        .param("page", "1")
+                        .param("size", "2")
+                        .param("sort", "departureTime"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].flightNumber").value("CC789"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void search_CountApproximate_ShouldReuseCountWithinTtl() throws Exception {
+        String criteria = objectMapper.writeValueAsString(FlightSearchCriteria.builder().build());
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("count", "APPROXIMATE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.approximateTotal").value(3));
+
+        jdbcTemplate.update("INSERT INTO flight (flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES ('DD100', 'Warsaw', 'Oslo', '2030-01-01', '2030-01-01', 10)");
+
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("count", "APPROXIMATE"))
+                .andExpect(jsonPath("$.content", hasSize(4)))
+                .andExpect(jsonPath("$.approximateTotal").value(3));
+    }
+
+    @Test
+    void getAllByFlightId_CountNone_ShouldReturnSlice() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TicketSearchCriteria.builder().build()))
+                        .param("count", "NONE")
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void search_InvalidCursor_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(FlightSearchCriteria.builder().build()))
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_CursorWithUnsortableProperty_BadRequest() throws Exception {
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("ASC:version:1:1".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(FlightSearchCriteria.builder().build()))
+                        .param("cursor", forged))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cannot page by property version"));
+    }
+
+    @Test
+    void getAllByFlightId_CursorSortedByPassenger_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TicketSearchCriteria.builder().build()))
+                        .param("cursor", "")
+                        .param("sort", "person.lastName"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cannot page by property person.lastName"));
+    }
+
+    @Test
+    void getAllByFlightId_WithCursor_ShouldWalkPages() throws Exception {
+        String criteria = objectMapper.writeValueAsString(TicketSearchCriteria.builder().build());
+        String firstPage = mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("cursor", "")
+                        .param("size", "2")
+                        .param("sort", "seatNumber,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].seatNumber").value(5))
+                .andExpect(jsonPath("$.content[1].seatNumber").value(4))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/v1/flights/2/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].seatNumber").value(3));
+    }
+
     @Test
     void getFlightById_ShouldReturnFlight() throws Exception {
         mockMvc.perform(get("/api/v1/flights/1"))
@@ -78,6 +353,31 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$.flightNumber").value("AA123"));
     }
 
+    @Test
+    void getFlightById_ShouldSendVersionAsETag() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void getFlightById_IfNoneMatchCurrentVersion_ShouldReturnNotModified() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getFlightById_IfNoneMatchOldVersion_ShouldReturnFlight() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.flightNumber").value("AA123"));
+    }
+
     @Test
     void getFlightById_NotFound_ShouldReturnNotFound() throws Exception {
         mockMvc.perform(get("/api/v1/flights/999"))
@@ -92,13 +392,95 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$", hasSize(148)));
     }
 
+    @Test
+    void createTicket_ShouldCountSoldSeatAndReconcilerShouldRepairDrift() throws Exception {
+        CreateTicketCommand command = CreateTicketCommand.builder()
+                .personId(4)
+                .seatNumber(3)
+                .price(BigDecimal.valueOf(100.0))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+        assertEquals(3, flightRepository.findById(1L).orElseThrow().getSoldSeats());
+
+        jdbcTemplate.update("UPDATE flight SET sold_seats = 40 WHERE id = 1");
+        assertEquals(1, soldSeatsReconciler.reconcile());
+        assertEquals(3, flightRepository.findById(1L).orElseThrow().getSoldSeats());
+    }
+
+    @Test
+    void getFreeSeats_AfterBooking_ShouldNotContainBookedSeat() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(148)));
+
+        CreateTicketCommand command = CreateTicketCommand.builder()
+                .personId(4)
+                .seatNumber(3)
+                .price(BigDecimal.valueOf(100.0))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(147)));
+    }
+
+    @Test
+    void search_ByAvailableSeats_ShouldReturnFlightsWithAtLeastThatManyFreeSeats() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(FlightSearchCriteria.builder()
+                                .availableSeats(180)
+                                .build()))
+                        .param("sort", "departureTime"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].flightNumber").value("BB456"))
+                .andExpect(jsonPath("$.content[1].flightNumber").value("CC789"));
+    }
+
+    @Test
+    void getFreeSeatCounts_ShouldReturnCountOfEveryExistingFlight() throws Exception {
+        mockMvc.perform(post("/api/v1/flights/free-seats")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new FlightIdsCommand(List.of(3L, 1L, 999L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].flightId").value(1))
+                .andExpect(jsonPath("$[0].freeSeats").value(148))
+                .andExpect(jsonPath("$[1].flightId").value(3))
+                .andExpect(jsonPath("$[1].freeSeats").value(180));
+    }
+
+    @Test
+    void getFreeSeatCounts_NoIds_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/flights/free-seats")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new FlightIdsCommand(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getFreeSeats_NotFound_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/999/free-seats"))
+                .andExpect(status().isNotFound());
+    }
+
 
     @Test
     void create_ShouldCreateFlight() throws Exception {
         CreateFlightCommand command = new CreateFlightCommand(
                 "DD123", "Boston", "Houston",
-                LocalDateTime.of(2024, 12, 4, 10, 0),
-                LocalDateTime.of(2024, 12, 4, 14, 0),
+                DEPARTURE,
+                DEPARTURE.plusHours(4),
                 120
         );
 
@@ -127,8 +509,8 @@ class FlightControllerTest {
     void update_ShouldUpdateFlight() throws Exception {
         CreateFlightCommand command = new CreateFlightCommand(
                 "AA123", "Boston", "Houston",
-                LocalDateTime.of(2025, 6, 4, 10, 0),
-                LocalDateTime.of(2025, 6, 4, 14, 0),
+                DEPARTURE,
+                DEPARTURE.plusHours(4),
                 120
         );
 
@@ -144,8 +526,8 @@ class FlightControllerTest {
     void update_FlightHaveTicket_BadRequest() throws Exception {
         CreateFlightCommand command = new CreateFlightCommand(
                 "AA123", "Boston", "Houston",
-                LocalDateTime.of(2025, 6, 4, 10, 0),
-                LocalDateTime.of(2025, 6, 4, 14, 0),
+                DEPARTURE,
+                DEPARTURE.plusHours(4),
                 120
         );
 
@@ -160,8 +542,8 @@ class FlightControllerTest {
     void update_NotFound_ShouldReturnNotFound() throws Exception {
         CreateFlightCommand command = new CreateFlightCommand(
                 "AA123", "Boston", "Houston",
-                LocalDateTime.of(2025, 6, 4, 10, 0),
-                LocalDateTime.of(2025, 6, 4, 14, 0),
+                DEPARTURE,
+                DEPARTURE.plusHours(4),
                 120
         );
 
@@ -174,8 +556,8 @@ class FlightControllerTest {
 
     @Test
     void updateTime_ShouldUpdateFlightTime() throws Exception {
-        LocalDateTime departureTime = LocalDateTime.of(2025, 6, 5, 11, 0);
-        LocalDateTime arrivalTime = LocalDateTime.of(2025, 6, 5, 15, 0);
+        LocalDateTime departureTime = DEPARTURE.plusDays(1).plusHours(1);
+        LocalDateTime arrivalTime = DEPARTURE.plusDays(1).plusHours(5);
         UpdateFlightTimeCommand command = new UpdateFlightTimeCommand(
                 departureTime,
                 arrivalTime
@@ -217,6 +599,24 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(2)));
     }
 
+    @Test
+    void getAllByFlightId_TicketWithoutPerson_ShouldBeListed() throws Exception {
+        jdbcTemplate.update("INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id) VALUES (6, 6, 1006, 100.00, 1, NULL)");
+        TicketSearchCriteria criteria = TicketSearchCriteria.builder().build();
+
+        mockMvc.perform(get("/api/v1/flights/1/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(criteria))
+                        .param("page", "0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)));
+        mockMvc.perform(get("/api/v1/flights/1/tickets/6"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0.1\""))
+                .andExpect(jsonPath("$.person").doesNotExist());
+    }
+
     @Test
     void createTicket_ShouldCreateTicketForFlight() throws Exception {
         CreateTicketCommand command = CreateTicketCommand.builder()
@@ -264,6 +664,149 @@ class FlightControllerTest {
                 .andExpect(jsonPath("$.message").value("Person with id 1 already has a ticket for flight with id 1"));
     }
 
+    @Test
+    void createGroup_ShouldCreateAllTickets() throws Exception {
+        CreateGroupTicketCommand command = CreateGroupTicketCommand.builder()
+                .tickets(List.of(
+                        CreateTicketCommand.builder().personId(3).seatNumber(10).price(BigDecimal.valueOf(100.0)).build(),
+                        CreateTicketCommand.builder().personId(4).seatNumber(11).price(BigDecimal.valueOf(120.0)).build()))
+                .build();
+
+        String body = mockMvc.perform(post("/api/v1/flights/1/tickets/group")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].seatNumber").value(10))
+                .andExpect(jsonPath("$[1].person.firstName").value("David"))
+                .andReturn().getResponse().getContentAsString();
+        // Both ids come out of one pooled block rather than a sequence block each.
+        JsonNode tickets = objectMapper.readTree(body);
+        assertEquals(tickets.get(0).get("id").asLong() + 1, tickets.get(1).get("id").asLong());
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasSize(146)));
+    }
+
+    @Test
+    void createGroup_OneSeatAlreadyTaken_ShouldCreateNoTicket() throws Exception {
+        CreateGroupTicketCommand command = CreateGroupTicketCommand.builder()
+                .tickets(List.of(
+                        CreateTicketCommand.builder().personId(3).seatNumber(10).price(BigDecimal.valueOf(100.0)).build(),
+                        CreateTicketCommand.builder().personId(4).seatNumber(1).price(BigDecimal.valueOf(120.0)).build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/tickets/group")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Flight with id 1 already has a ticket with seat number 1"));
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasSize(148)));
+    }
+
+    @Test
+    void update_IfMatchCurrentVersion_ShouldUpdateAndSendNextETag() throws Exception {
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(futureFlightCommand())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.destination").value("Denver"));
+    }
+
+    @Test
+    void update_IfMatchStaleVersion_ShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(futureFlightCommand())))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Flight with id 3 was updated by another user. Please refresh and try again."));
+
+        mockMvc.perform(get("/api/v1/flights/3"))
+                .andExpect(jsonPath("$.destination").value("Seattle"));
+    }
+
+    @Test
+    void update_IfMatchWeakETag_ShouldReturnPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(futureFlightCommand())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void update_IfMatchListingCurrentVersion_ShouldUpdate() throws Exception {
+        mockMvc.perform(put("/api/v1/flights/3")
+                        .header(HttpHeaders.IF_MATCH, "\"0\", W/\"1\", \"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(futureFlightCommand())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void getTicketById_ShouldReturnTicketWithETag() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/2/tickets/3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.1\""))
+                .andExpect(jsonPath("$.seatNumber").value(3));
+
+        mockMvc.perform(get("/api/v1/flights/2/tickets/3")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1.1.1\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getTicketById_PassengerUpdated_ShouldSendNewETag() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/2/tickets/3"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.1\""));
+
+        CreatePersonCommand command = CreatePersonCommand.builder()
+                .firstName("Alice")
+                .lastName("Doe")
+                .phoneNumber("087654321")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .email("alice.newemail@example.com")
+                .build();
+
+        mockMvc.perform(put("/api/v1/persons/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/flights/2/tickets/3")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1.1.1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.2.1\""));
+    }
+
+    @Test
+    void getTicketById_TicketOfOtherFlight_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/flights/1/tickets/3"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/flights/1/tickets/3")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void updateTicketPerson_IfMatchStaleVersion_ShouldReturnPreconditionFailed() throws Exception {
+        UpdateTicketPersonCommand command = UpdateTicketPersonCommand.builder()
+                .personId(4)
+                .build();
+
+        mockMvc.perform(put("/api/v1/flights/1/tickets/1")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void updateTicketPerson_ShouldUpdatePersonForTicket() throws Exception {
         UpdateTicketPersonCommand command = UpdateTicketPersonCommand.builder()
@@ -275,4 +818,13 @@ class FlightControllerTest {
                         .content(objectMapper.writeValueAsString(command)))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    private static CreateFlightCommand futureFlightCommand() {
+        return new CreateFlightCommand(
+                "CC789", "Miami", "Denver",
+                LocalDateTime.of(2030, 6, 4, 10, 0),
+                LocalDateTime.of(2030, 6, 4, 14, 0),
+                180
+        );
+    }
+}
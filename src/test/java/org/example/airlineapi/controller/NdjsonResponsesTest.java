@@ -0,0 +1,63 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.airlineapi.config.PagingProperties;
+import org.example.airlineapi.exception.TooManyStreamsException;
+import org.example.airlineapi.service.paging.StreamPermits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class NdjsonResponsesTest {
+
+    private StreamPermits streamPermits;
+    private NdjsonResponses ndjsonResponses;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        PagingProperties properties = new PagingProperties();
+        properties.setStreamPoolShare(0.1);
+        streamPermits = new StreamPermits(properties, mock(DataSource.class));
+        ndjsonResponses = new NdjsonResponses(streamPermits, new ObjectMapper());
+
+        request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void stream_AsyncRequestCompletesBeforeBodyRuns_ShouldGiveBackPermit() throws Exception {
+        ndjsonResponses.stream(writer -> writer.write("never written"));
+        assertThrows(TooManyStreamsException.class, streamPermits::acquire);
+
+        // The executor drops the body, as when the request times out or the client leaves before it is scheduled.
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        asyncManager.setTaskExecutor(mock(AsyncTaskExecutor.class));
+        asyncManager.startCallableProcessing(() -> null);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertDoesNotThrow(() -> streamPermits.acquire().close());
+    }
+}
@@ -5,24 +5,33 @@ import org.example.airlineapi.model.person.PersonSearchCriteria;
 import org.example.airlineapi.model.person.command.CreatePersonCommand;
 import org.example.airlineapi.model.ticket.TicketSearchCriteria;
 import org.example.airlineapi.repository.PersonRepository;
+import org.example.airlineapi.service.paging.StreamPermits;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -42,6 +51,9 @@ class PersonControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private StreamPermits streamPermits;
+
     @Test
     void getAll_ShouldReturnListOfPersons() throws Exception {
         mockMvc.perform(get("/api/v1/persons"))
@@ -50,6 +62,83 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$", hasSize(4)));
     }
 
+    @Test
+    void getAll_Ndjson_ShouldStreamOnePersonPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/persons").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals("Alice", objectMapper.readTree(lines.get(0)).get("firstName").asText());
+    }
+
+    @Test
+    void getAll_Ndjson_NoStreamPermitLeft_ShouldReturnServiceUnavailable() throws Exception {
+        List<StreamPermits.Permit> taken = new ArrayList<>();
+        for (int i = 0; i < streamPermits.limit(); i++) {
+            taken.add(streamPermits.acquire());
+        }
+        try {
+            mockMvc.perform(get("/api/v1/persons").accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.message").value("Too many streams are running. Please try again later."));
+        } finally {
+            taken.forEach(StreamPermits.Permit::close);
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/v1/persons").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void search_Ndjson_ShouldStreamEveryMatchInSortOrder() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/persons/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("sort", "id,desc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PersonSearchCriteria.builder().build())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals("David", objectMapper.readTree(lines.get(0)).get("firstName").asText());
+        assertEquals("Alice", objectMapper.readTree(lines.get(3)).get("firstName").asText());
+    }
+
+    @Test
+    void getAllByPersonId_Ndjson_ShouldStreamEveryTicket() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/persons/1/tickets")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TicketSearchCriteria.builder().build())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("AA123", objectMapper.readTree(lines.get(0)).get("flight").get("flightNumber").asText());
+        assertEquals("BB456", objectMapper.readTree(lines.get(1)).get("flight").get("flightNumber").asText());
+    }
+
     @Test
     void search_ShouldReturnPageOfPersons() throws Exception {
         PersonSearchCriteria criteria = PersonSearchCriteria.builder().firstName("Alice").build();
@@ -63,6 +152,31 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)));
     }
 
+    @Test
+    void search_WithCursor_ShouldWalkPagesBySeekingPastTheLastRow() throws Exception {
+        String criteria = objectMapper.writeValueAsString(PersonSearchCriteria.builder().build());
+        String firstPage = mockMvc.perform(get("/api/v1/persons/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("cursor", "")
+                        .param("size", "3")
+                        .param("sort", "lastName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].lastName").value("Brown"))
+                .andExpect(jsonPath("$.content[2].lastName").value("Smith"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/v1/persons/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(criteria)
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText())
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].lastName").value("White"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
     @Test
     void getPersonById_ShouldReturnPerson() throws Exception {
         mockMvc.perform(get("/api/v1/persons/1"))
@@ -71,6 +185,17 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$.firstName").value("Alice"));
     }
 
+    @Test
+    void getPersonById_IfNoneMatchCurrentVersion_ShouldReturnNotModified() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/api/v1/persons/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getPersonById_NotFound_ShouldReturnNotFound() throws Exception {
         mockMvc.perform(get("/api/v1/persons/999"))
@@ -128,6 +253,30 @@ class PersonControllerTest {
                 .andExpect(jsonPath("$.phoneNumber").value("087654321"));
     }
 
+    @Test
+    void update_IfMatch_ShouldRefuseStaleVersionAndAcceptCurrentOne() throws Exception {
+        CreatePersonCommand command = CreatePersonCommand.builder()
+                .firstName("Alice")
+                .lastName("Doe")
+                .phoneNumber("087654321")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .email("alice.newemail@example.com")
+                .build();
+
+        mockMvc.perform(put("/api/v1/persons/1")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/api/v1/persons/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
     @Test
     void update_NotFound_ShouldReturnNotFound() throws Exception {
         CreatePersonCommand command = CreatePersonCommand.builder()
@@ -0,0 +1,173 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.example.airlineapi.model.hold.command.CreateSeatHoldCommand;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class SeatHoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatHoldRegistry seatHoldRegistry;
+
+    @AfterEach
+    void tearDown() {
+        seatInventory.evictAll();
+        seatHoldRegistry.evictAll();
+    }
+
+    @Test
+    void create_ShouldHoldSeatsAndHideThemFromFreeSeats() throws Exception {
+        placeHold(1, List.of(10L, 11L));
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasSize(146)))
+                .andExpect(jsonPath("$", not(hasItem(10))));
+    }
+
+    @Test
+    void create_SeatAlreadyHeld_BadRequest() throws Exception {
+        placeHold(1, List.of(10L, 11L));
+
+        mockMvc.perform(post("/api/v1/flights/1/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateSeatHoldCommand(List.of(11L, 12L)))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasItem(12)));
+    }
+
+    @Test
+    void create_SeatAlreadyBooked_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/flights/1/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateSeatHoldCommand(List.of(1L)))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void create_HeldSeat_CannotBeBookedDirectly() throws Exception {
+        placeHold(1, List.of(10L));
+        CreateTicketCommand command = CreateTicketCommand.builder().personId(3).seatNumber(10).price(BigDecimal.TEN).build();
+
+        mockMvc.perform(post("/api/v1/flights/1/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void release_ShouldFreeSeats() throws Exception {
+        String holdId = placeHold(1, List.of(10L, 11L));
+
+        mockMvc.perform(delete("/api/v1/flights/1/holds/{holdId}", holdId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasSize(148)));
+    }
+
+    @Test
+    void convert_ShouldCreateTicketsAndReleaseHold() throws Exception {
+        String holdId = placeHold(1, List.of(10L, 11L));
+        CreateGroupTicketCommand command = CreateGroupTicketCommand.builder()
+                .tickets(List.of(
+                        CreateTicketCommand.builder().personId(3).seatNumber(10).price(BigDecimal.TEN).build(),
+                        CreateTicketCommand.builder().personId(4).seatNumber(11).price(BigDecimal.TEN).build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/holds/{holdId}/tickets", holdId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(delete("/api/v1/flights/1/holds/{holdId}", holdId))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/v1/flights/1/free-seats"))
+                .andExpect(jsonPath("$", hasSize(146)));
+    }
+
+    @Test
+    void convert_SeatsDoNotMatchHold_BadRequest() throws Exception {
+        String holdId = placeHold(1, List.of(10L, 11L));
+        CreateGroupTicketCommand command = CreateGroupTicketCommand.builder()
+                .tickets(List.of(CreateTicketCommand.builder().personId(3).seatNumber(10).price(BigDecimal.TEN).build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/holds/{holdId}/tickets", holdId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void convert_PassengerAlreadyOnFlight_ShouldKeepHold() throws Exception {
+        String holdId = placeHold(1, List.of(10L));
+        CreateGroupTicketCommand command = CreateGroupTicketCommand.builder()
+                .tickets(List.of(CreateTicketCommand.builder().personId(1).seatNumber(10).price(BigDecimal.TEN).build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/holds/{holdId}/tickets", holdId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isBadRequest());
+
+        command.setTickets(List.of(CreateTicketCommand.builder().personId(3).seatNumber(10).price(BigDecimal.TEN).build()));
+        mockMvc.perform(post("/api/v1/flights/1/holds/{holdId}/tickets", holdId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+    }
+
+    private String placeHold(long flightId, List<Long> seatNumbers) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/flights/{flightId}/holds", flightId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateSeatHoldCommand(seatNumbers))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.seatNumbers", hasSize(seatNumbers.size())))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.id");
+    }
+}
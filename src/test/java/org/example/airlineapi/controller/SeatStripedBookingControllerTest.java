@@ -0,0 +1,70 @@
+package org.example.airlineapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.inventory.SoldSeatsReconciler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The scheduled recount is pushed out of the way, so the test decides when pending flights are recounted.
+@SpringBootTest(properties = {"airline.booking.mode=SEAT_STRIPED", "airline.sold-seats.recount-delay=PT1H"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class SeatStripedBookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private SoldSeatsReconciler soldSeatsReconciler;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @AfterEach
+    void tearDown() {
+        seatInventory.evictAll();
+    }
+
+    @Test
+    void createTicket_ShouldCountSoldSeatOnlyAfterCommit() throws Exception {
+        CreateTicketCommand command = CreateTicketCommand.builder()
+                .personId(4)
+                .seatNumber(3)
+                .price(BigDecimal.valueOf(100.0))
+                .build();
+
+        mockMvc.perform(post("/api/v1/flights/1/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+        assertEquals(2, flightRepository.findSoldSeatsById(1L).orElseThrow());
+
+        soldSeatsReconciler.recountPending();
+        assertEquals(3, flightRepository.findSoldSeatsById(1L).orElseThrow());
+    }
+}
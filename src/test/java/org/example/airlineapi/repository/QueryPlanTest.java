@@ -0,0 +1,232 @@
+package org.example.airlineapi.repository;
+
+import org.example.airlineapi.mapper.FlightMapper;
+import org.example.airlineapi.mapper.TicketMapper;
+import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.flight.FlightSearchCriteria;
+import org.example.airlineapi.model.page.KeysetCursor;
+import org.example.airlineapi.model.person.PersonSearchCriteria;
+import org.example.airlineapi.model.ticket.Ticket;
+import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.utils.Specification.FlightSpecs;
+import org.example.airlineapi.utils.Specification.KeysetSpecs;
+import org.example.airlineapi.utils.Specification.PersonSpecs;
+import org.example.airlineapi.utils.Specification.TicketSpecs;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs every selective repository query and Specification combination, captures the SQL Hibernate sends and fails
+ * when H2's plan for it scans a table holding at least {@link #SCAN_THRESHOLD} rows. Listings without criteria read
+ * whole tables by design and are left out.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.example.airlineapi.repository.QueryPlanTest$SqlCapture"})
+@ActiveProfiles("test")
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    private static final int SCAN_THRESHOLD = 1_000;
+    private static final int ROWS = 2_000;
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> flights = new ArrayList<>();
+        List<Object[]> persons = new ArrayList<>();
+        List<Object[]> tickets = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            LocalDateTime departure = DAY.plusHours(i);
+            flights.add(new Object[]{i, "F" + i, "O" + i % 50, "D" + i % 50, departure, departure.plusHours(2)});
+            persons.add(new Object[]{i, "First" + i, "Last" + i % 500, "person" + i + "@example.com"});
+            tickets.add(new Object[]{i, i / 20 + 1, i, i % 20 + 1, i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO flight (id, flight_number, origin, destination, departure_time, arrival_time, number_of_seats) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 200)", flights);
+        jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name, email, phone_number, date_of_birth) " +
+                "VALUES (?, ?, ?, ?, '123456789', '1990-01-01')", persons);
+        jdbcTemplate.batchUpdate("INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id) " +
+                "VALUES (?, ?, ?, 100, ?, ?)", tickets);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ticket");
+        jdbcTemplate.update("DELETE FROM person");
+        jdbcTemplate.update("DELETE FROM flight");
+    }
+
+    Stream<Arguments> accessPaths() {
+        PageRequest page = PageRequest.of(0, 20);
+        PageRequest byDeparture = PageRequest.of(0, 20, Sort.by("departureTime"));
+        KeysetCursor departureCursor = KeysetCursor.decode("", Sort.by("departureTime"), FlightSpecs.SORTABLE).next(DAY.plusHours(100), 100L);
+        TicketSearchCriteria anyTicket = TicketSearchCriteria.builder().build();
+
+        return Stream.of(
+                path("ticket exists by seat and flight", () -> ticketRepository.existsBySeatNumberAndFlightId(5, 7)),
+                path("tickets by person and flight", () -> ticketRepository.findByPersonIdAndFlightId(7, 7)),
+                path("seat numbers by flight", () -> ticketRepository.findSeatNumbersByFlightId(7)),
+                path("person ids by flight", () -> ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(7, Set.of(7L, 27L))),
+                path("tickets of flight", () -> ticketRepository.findAll(TicketSpecs.specsWithFlightId(7, anyTicket), page)),
+                path("tickets of flight by seat", () -> ticketRepository.findAll(TicketSpecs.specsWithFlightId(7,
+                        TicketSearchCriteria.builder().seatNumber(8).build()), page)),
+                path("tickets of person", () -> ticketRepository.findAll(TicketSpecs.specsWithPersonId(7, anyTicket), page)),
+                path("ticket rows of flight", () -> projectionRepository.findAll(Ticket.class,
+                        TicketSpecs.specsWithFlightId(7, anyTicket), TicketMapper.ROW_PROJECTION, page)),
+                path("ticket rows of person", () -> projectionRepository.findAll(Ticket.class,
+                        TicketSpecs.specsWithPersonId(7, anyTicket), TicketMapper.ROW_PROJECTION, page)),
+                path("ticket row by id", () -> projectionRepository.findById(Ticket.class, 7L, TicketMapper.ROW_PROJECTION)),
+                path("tickets of person after cursor", () -> ticketRepository.findBy(
+                        TicketSpecs.specsWithPersonId(7, anyTicket).and(KeysetSpecs.after(KeysetCursor.decode("", Sort.unsorted(), TicketSpecs.SORTABLE).next(3L, 3L))),
+                        query -> query.sortBy(Sort.by("id")).limit(21).all())),
+                path("flight seats", () -> flightRepository.findNumberOfSeatsById(7)),
+                path("free seats of flights", () -> flightRepository.findFreeSeatsByIdIn(Set.of(7L, 8L, 9L))),
+                path("flights by origin", () -> flightRepository.findAll(FlightSpecs.createSpecs(FlightSearchCriteria.builder()
+                        .origin("O7")
+                        .build()), page)),
+                path("flights by route", () -> flightRepository.findAll(FlightSpecs.createSpecs(FlightSearchCriteria.builder()
+                        .origin("O7")
+                        .destination("D7")
+                        .build()), byDeparture)),
+                path("flights by route and departure", () -> flightRepository.findAll(FlightSpecs.createSpecs(FlightSearchCriteria.builder()
+                        .origin("O7")
+                        .destination("D7")
+                        .departureTimeFrom(DAY)
+                        .departureTimeTo(DAY.plusDays(7))
+                        .availableSeats(10)
+                        .build()), byDeparture)),
+                path("flights by departure", () -> flightRepository.findAll(FlightSpecs.createSpecs(FlightSearchCriteria.builder()
+                        .departureTimeFrom(DAY)
+                        .departureTimeTo(DAY.plusDays(1))
+                        .build()), byDeparture)),
+                path("flight rows by route", () -> projectionRepository.findAll(Flight.class, FlightSpecs.createSpecs(FlightSearchCriteria.builder()
+                        .origin("O7")
+                        .destination("D7")
+                        .build()), FlightMapper.DTO_PROJECTION, byDeparture)),
+                path("flights by number", () -> flightRepository.findAll(FlightSpecs.createSpecs(FlightSearchCriteria.builder()
+                        .flightNumber(7L)
+                        .build()), page)),
+                path("flights after departure cursor", () -> flightRepository.findBy(KeysetSpecs.after(departureCursor),
+                        query -> query.sortBy(departureCursor.sort()).limit(21).all())),
+                path("persons by last name", () -> personRepository.findAll(PersonSpecs.createSpecs(PersonSearchCriteria.builder()
+                        .lastName("Last7")
+                        .build()), page)),
+                path("persons by name", () -> personRepository.findAll(PersonSpecs.createSpecs(PersonSearchCriteria.builder()
+                        .firstName("First7")
+                        .lastName("Last7")
+                        .dateOfBirth(LocalDate.of(1990, 1, 1))
+                        .build()), page)),
+                path("persons by email", () -> personRepository.findAll(PersonSpecs.createSpecs(PersonSearchCriteria.builder()
+                        .email("person7@example.com")
+                        .build()), page))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("accessPaths")
+    void accessPath_ShouldNotScanLargeTables(String name, Runnable query) {
+        SqlCapture.STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> query.run());
+
+        List<String> selects = SqlCapture.STATEMENTS.stream()
+                .filter(sql -> sql.regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertFalse(selects.isEmpty(), "no query was captured");
+        selects.forEach(sql -> {
+            String plan = explain(sql);
+            Matcher scan = TABLE_SCAN.matcher(plan);
+            while (scan.find()) {
+                String table = scan.group(1);
+                int rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+                assertTrue(rows < SCAN_THRESHOLD, () -> "scans " + table + " (" + rows + " rows):\n" + plan);
+            }
+        });
+    }
+
+    /**
+     * Parameters are bound as NULL; H2 plans a statement when it is prepared, before any value is known.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    private static Arguments path(String name, Runnable query) {
+        return arguments(name, query);
+    }
+
+    /**
+     * Collects the SQL of every statement Hibernate prepares.
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package org.example.airlineapi.service;
 
+import jakarta.persistence.EntityManager;
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.config.PagingProperties;
 import org.example.airlineapi.exception.ArgumentCannotBeNullException;
 import org.example.airlineapi.exception.IllegalBehaviourException;
 import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.PreconditionFailedException;
+import org.example.airlineapi.mapper.FlightMapper;
 import org.example.airlineapi.model.flight.Flight;
 import org.example.airlineapi.model.flight.FlightSearchCriteria;
 import org.example.airlineapi.model.flight.command.CreateFlightCommand;
 import org.example.airlineapi.model.flight.command.UpdateFlightTimeCommand;
 import org.example.airlineapi.model.flight.dto.FlightDto;
-import org.example.airlineapi.model.ticket.Ticket;
+import org.example.airlineapi.model.flight.dto.FlightFreeSeatsDto;
 import org.example.airlineapi.repository.FlightRepository;
+import org.example.airlineapi.repository.ProjectionRepository;
+import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.service.booking.TicketNumberAllocator;
+import org.example.airlineapi.service.cache.FlightDtoCache;
+import org.example.airlineapi.service.cache.TicketDtoCache;
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.paging.PageQueryExecutor;
+import org.example.airlineapi.service.search.FlightSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
@@ -34,6 +51,7 @@ import static org.example.airlineapi.mapper.FlightMapper.fromCommand;
 import static org.example.airlineapi.mapper.FlightMapper.toDto;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -45,6 +63,36 @@ class FlightServiceTest {
     @Mock
     private FlightRepository flightRepository;
 
+    @Mock
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private SeatInventory seatInventory;
+
+    @Mock
+    private SeatHoldRegistry seatHoldRegistry;
+
+    @Mock
+    private TicketNumberAllocator ticketNumberAllocator;
+
+    @Mock
+    private FlightSearchIndex flightSearchIndex;
+
+    @Mock
+    private TicketDtoCache ticketDtoCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private FlightDtoCache flightDtoCache = new FlightDtoCache(new DtoCacheProperties());
+
+    @Spy
+    private PageQueryExecutor pageQueryExecutor = new PageQueryExecutor(new PagingProperties(), null);
+
     @InjectMocks
     private FlightService flightService;
 
@@ -80,14 +128,30 @@ class FlightServiceTest {
     void testGetAll_ShouldReturnListOfFlightDtos() {
         List<FlightDto> expectedList = List.of(toDto(flight1), toDto(flight2));
 
-        when(flightRepository.findAll()).thenReturn(List.of(flight1, flight2));
+        when(projectionRepository.findAll(Flight.class, null, FlightMapper.DTO_PROJECTION, Pageable.unpaged()))
+                .thenReturn(expectedList);
         List<FlightDto> result = flightService.getAll();
 
         assertEquals(expectedList.size(), result.size());
         assertEquals(expectedList.get(0), result.get(0));
         assertEquals(expectedList.get(1), result.get(1));
-        verify(flightRepository).findAll();
-        verifyNoMoreInteractions(flightRepository);
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testSearch_RouteSearch_ShouldBeAnsweredByIndex() {
+        Page<FlightDto> expectedPage = new PageImpl<>(List.of(toDto(flight1)));
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        FlightSearchCriteria searchCriteria = FlightSearchCriteria.builder()
+                .origin("JFK")
+                .destination("LAX")
+                .build();
+
+        when(flightSearchIndex.search(searchCriteria, pageRequest)).thenReturn(Optional.of(expectedPage));
+        Page<FlightDto> result = flightService.search(pageRequest, searchCriteria);
+
+        assertEquals(expectedPage, result);
+        verifyNoInteractions(flightRepository);
     }
 
     @Test
@@ -97,14 +161,14 @@ class FlightServiceTest {
         FlightSearchCriteria searchCriteria = FlightSearchCriteria.builder().build();
         Specification<Flight> specs = Specification.where(null);
 
-        when(flightRepository.findAll(specs, pageRequest)).thenReturn(new PageImpl(List.of(flight1, flight2)));
+        when(projectionRepository.findAll(Flight.class, specs, FlightMapper.DTO_PROJECTION, pageRequest))
+                .thenReturn(expectedPage.getContent());
         Page<FlightDto> result = flightService.search(pageRequest, searchCriteria);
 
         assertEquals(expectedPage.getTotalElements(), result.getTotalElements());
         assertEquals(expectedPage.getContent().get(0), result.getContent().get(0));
         assertEquals(expectedPage.getContent().get(1), result.getContent().get(1));
-        verify(flightRepository).findAll(specs, pageRequest);
-        verifyNoMoreInteractions(flightRepository);
+        verifyNoInteractions(flightRepository);
     }
 
     @Test
@@ -121,77 +185,79 @@ class FlightServiceTest {
     @Test
     void testGetById_ShouldReturnFlightDto() {
         long id = 1L;
-        when(flightRepository.findById(id)).thenReturn(Optional.ofNullable(flight1));
         FlightDto expectedFlight = toDto(flight1);
+        when(projectionRepository.findById(Flight.class, id, FlightMapper.DTO_PROJECTION)).thenReturn(Optional.of(expectedFlight));
 
         FlightDto result = flightService.getById(id);
 
         assertEquals(expectedFlight, result);
-        verify(flightRepository).findById(id);
-        verifyNoMoreInteractions(flightRepository);
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testGetById_SecondRead_ShouldComeFromCache() {
+        long id = 1L;
+        when(projectionRepository.findById(Flight.class, id, FlightMapper.DTO_PROJECTION)).thenReturn(Optional.of(toDto(flight1)));
+
+        flightService.getById(id);
+        FlightDto result = flightService.getById(id);
+
+        assertEquals(toDto(flight1), result);
+        verify(projectionRepository).findById(Flight.class, id, FlightMapper.DTO_PROJECTION);
+        verifyNoMoreInteractions(projectionRepository);
     }
 
     @Test
     void testGetById_FlightNotFound_ThrowNotFoundException() {
         long id = 3L;
-        when(flightRepository.findById(id)).thenReturn(Optional.empty());
+        when(projectionRepository.findById(Flight.class, id, FlightMapper.DTO_PROJECTION)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
                 .isThrownBy(() -> flightService.getById(id))
                 .withMessage("Flight with id 3 not found");
-        verify(flightRepository).findById(id);
-        verifyNoMoreInteractions(flightRepository);
+        verifyNoInteractions(flightRepository);
     }
 
     @Test
-    void testGetFreeSeat_ShouldReturnSetOfAllFreeSeats() {
+    void testGetFreeSeat_ShouldReturnFreeSeatsFromInventory() {
         long id = 1L;
-        List<Long> expectedList = LongStream.rangeClosed(1, 100).boxed().toList();
+        Set<Long> expectedSeats = LongStream.rangeClosed(3, 100).boxed().collect(Collectors.toSet());
 
-        when(flightRepository.findWithLockById(id)).thenReturn(Optional.ofNullable(flight1));
+        when(flightRepository.findNumberOfSeatsById(id)).thenReturn(Optional.of(100));
+        when(seatInventory.getFreeSeats(id, 100)).thenReturn(expectedSeats);
         Set<Long> result = flightService.getFreeSeat(id);
 
-
-        assertEquals(expectedList.size(), result.size());
-        assertTrue(result.containsAll(expectedList));
-        verify(flightRepository).findWithLockById(id);
-        verifyNoMoreInteractions(flightRepository);
+        assertEquals(expectedSeats, result);
+        verify(flightRepository).findNumberOfSeatsById(id);
+        verify(seatInventory).getFreeSeats(id, 100);
+        verifyNoMoreInteractions(flightRepository, seatInventory);
     }
 
     @Test
-    void testGetFreeSeat_ShouldReturnSetOfFreeSeats() {
-        long id = 1L;
-        long expectedSize = 98;
-
-        flight1.setTickets(Set.of(
-                Ticket.builder().seatNumber(1L).build(),
-                Ticket.builder().seatNumber(2L).build()));
-
-        when(flightRepository.findWithLockById(id)).thenReturn(Optional.ofNullable(flight1));
-        Set<Long> result = flightService.getFreeSeat(id);
-
+    void testGetFreeSeat_FlightNotFound_ThrowNotFoundException() {
+        long id = 3L;
+        when(flightRepository.findNumberOfSeatsById(id)).thenReturn(Optional.empty());
 
-        assertEquals(expectedSize, result.size());
-        assertTrue(result.contains(3L));
-        assertTrue(result.contains(95L));
-        assertFalse(result.contains(1L));
-        verify(flightRepository).findWithLockById(id);
+        assertThatExceptionOfType(NotFoundException.class)
+                .isThrownBy(() -> flightService.getFreeSeat(id))
+                .withMessage("Flight with id 3 not found");
+        verify(flightRepository).findNumberOfSeatsById(id);
         verifyNoMoreInteractions(flightRepository);
+        verifyNoInteractions(seatInventory);
     }
 
     @Test
-    void testGetFreeSeat_ShouldReturnEmptySetOfFreeSeats(){
-        long id = 1L;
-        Set<Long> list = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toSet());
-        flight1.setTickets(list.stream().map(seatNumber -> Ticket.builder().seatNumber(seatNumber).build()).collect(Collectors.toSet()));
-
-        when(flightRepository.findWithLockById(id)).thenReturn(Optional.ofNullable(flight1));
-        Set<Long> result = flightService.getFreeSeat(id);
+    void testGetFreeSeatCounts_ShouldSubtractHeldSeats() {
+        List<Long> ids = List.of(1L, 2L);
 
+        when(flightRepository.findFreeSeatsByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                new FlightFreeSeatsDto(1L, 10), new FlightFreeSeatsDto(2L, 1)));
+        when(seatHoldRegistry.getClaimedSeats(1L)).thenReturn(Set.of(4L, 5L));
+        when(seatHoldRegistry.getClaimedSeats(2L)).thenReturn(Set.of(7L, 8L));
+        List<FlightFreeSeatsDto> result = flightService.getFreeSeatCounts(ids);
 
-        assertEquals(0, result.size());
-        assertFalse(result.contains(41L));
-        verify(flightRepository).findWithLockById(id);
+        assertEquals(List.of(new FlightFreeSeatsDto(1L, 8), new FlightFreeSeatsDto(2L, 0)), result);
+        verify(flightRepository).findFreeSeatsByIdIn(Set.of(1L, 2L));
         verifyNoMoreInteractions(flightRepository);
     }
 
@@ -205,6 +271,8 @@ class FlightServiceTest {
 
         assertEquals(expectedFlightDto, result);
         verify(flightRepository).save(any(Flight.class));
+        verify(ticketNumberAllocator).register(flight1.getId());
+        verify(flightSearchIndex).putAfterCommit(expectedFlightDto);
         verifyNoMoreInteractions(flightRepository);
     }
 
@@ -219,10 +287,35 @@ class FlightServiceTest {
         FlightDto expectedFlightDto = toDto(updatedFlight);
 
         when(flightRepository.findById(id)).thenReturn(Optional.ofNullable(flight1));
-        FlightDto result = flightService.update(id, command);
+        FlightDto result = flightService.update(id, null, command);
 
         assertEquals(expectedFlightDto, result);
         verify(flightRepository).findById(id);
+        verify(flightDtoCache).invalidateAfterCommit(id);
+        verifyNoMoreInteractions(flightRepository);
+    }
+
+    @Test
+    void testUpdate_StaleVersion_ThrowPreconditionFailedExceptionWithoutLoadingFlight() {
+        long id = 1L;
+        CreateFlightCommand command = createFlightCommand();
+
+        when(flightRepository.findVersionById(id)).thenReturn(Optional.of(2L));
+
+        assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> flightService.update(id, Set.of("\"1\""), command))
+                .withMessage("Flight with id 1 was updated by another user. Please refresh and try again.");
+        verify(flightRepository).findVersionById(id);
+        verifyNoMoreInteractions(flightRepository);
+    }
+
+    @Test
+    void testGetVersion_ShouldReadVersionWithoutFlight() {
+        long id = 1L;
+        when(flightRepository.findVersionById(id)).thenReturn(Optional.of(4L));
+
+        assertEquals(4L, flightService.getVersion(id));
+        verify(flightRepository).findVersionById(id);
         verifyNoMoreInteractions(flightRepository);
     }
 
@@ -234,7 +327,7 @@ class FlightServiceTest {
         when(flightRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
-                .isThrownBy(() -> flightService.update(id, command))
+                .isThrownBy(() -> flightService.update(id, null, command))
                 .withMessage("Flight with id 3 not found");
         verify(flightRepository).findById(id);
         verifyNoMoreInteractions(flightRepository);
@@ -243,17 +336,13 @@ class FlightServiceTest {
     @Test
     void testUpdate_FlightHasTickets_ThrowIllegalBehaviourException() {
         long id = 1L;
-        Ticket ticket = Ticket.builder()
-                .id(1L)
-                .ticketNumber("AV-123")
-                .build();
-        flight1.setTickets(Set.of(ticket));
         CreateFlightCommand command = createFlightCommand();
 
         when(flightRepository.findById(id)).thenReturn(Optional.ofNullable(flight1));
+        when(ticketRepository.existsByFlightId(id)).thenReturn(true);
 
         assertThatExceptionOfType(IllegalBehaviourException.class)
-                .isThrownBy(() -> flightService.update(id, command))
+                .isThrownBy(() -> flightService.update(id, null, command))
                 .withMessage("Flight with id 1 has tickets. Cannot update flight with sold ticket.");
         verify(flightRepository).findById(id);
         verifyNoMoreInteractions(flightRepository);
@@ -272,10 +361,11 @@ class FlightServiceTest {
         FlightDto expectedFlightDto = toDto(updatedFlight);
 
         when(flightRepository.findById(id)).thenReturn(Optional.ofNullable(flight1));
-        FlightDto result = flightService.updateTime(id, command);
+        FlightDto result = flightService.updateTime(id, null, command);
 
         assertEquals(expectedFlightDto, result);
         verify(flightRepository).findById(id);
+        verify(flightDtoCache).invalidateAfterCommit(id);
         verifyNoMoreInteractions(flightRepository);
     }
 
@@ -290,33 +380,64 @@ class FlightServiceTest {
         when(flightRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
-                .isThrownBy(() -> flightService.updateTime(id, command))
+                .isThrownBy(() -> flightService.updateTime(id, null, command))
                 .withMessage("Flight with id 3 not found");
         verify(flightRepository).findById(id);
         verifyNoMoreInteractions(flightRepository);
     }
 
     @Test
-    void testDelete_ShouldDeleteFlight() {
+    void testDelete_ShouldLockFlightBeforeDeletingTickets() {
         long id = 1L;
-        when(flightRepository.findById(id)).thenReturn(Optional.ofNullable(flight1));
+        when(flightRepository.findWithLockById(id)).thenReturn(Optional.ofNullable(flight1));
 
         flightService.delete(id);
 
-        verify(flightRepository).findById(id);
-        verify(flightRepository).delete(flight1);
+        InOrder inOrder = inOrder(flightRepository, ticketRepository);
+        inOrder.verify(flightRepository).findWithLockById(id);
+        inOrder.verify(ticketRepository).deleteAllByFlightId(id);
+        inOrder.verify(flightRepository).delete(flight1);
+        verify(seatInventory).evictAfterCommit(id);
+        verify(ticketNumberAllocator).forget(id);
+        verify(flightSearchIndex).removeAfterCommit(id);
+        verify(flightDtoCache).invalidateAfterCommit(id);
+        verify(ticketDtoCache).invalidateAllAfterCommit();
         verifyNoMoreInteractions(flightRepository);
     }
 
     @Test
     void testDelete_FlightNotFound_ThrowNotFoundException() {
         long id = 3L;
-        when(flightRepository.findById(id)).thenReturn(Optional.empty());
+        when(flightRepository.findWithLockById(id)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
                 .isThrownBy(() -> flightService.delete(id))
                 .withMessage("Flight with id 3 not found");
-        verify(flightRepository).findById(id);
+        verify(flightRepository).findWithLockById(id);
+        verifyNoMoreInteractions(flightRepository);
+    }
+
+    @Test
+    void testRecountSoldSeats_ShouldLockFlightBeforeRecounting() {
+        long id = 1L;
+        when(flightRepository.findWithLockById(id)).thenReturn(Optional.ofNullable(flight1));
+
+        flightService.recountSoldSeats(id);
+
+        InOrder inOrder = inOrder(flightRepository);
+        inOrder.verify(flightRepository).findWithLockById(id);
+        inOrder.verify(flightRepository).recountSoldSeats(id);
+        verifyNoMoreInteractions(flightRepository);
+    }
+
+    @Test
+    void testRecountSoldSeats_FlightNotFound_ShouldDoNothing() {
+        long id = 3L;
+        when(flightRepository.findWithLockById(id)).thenReturn(Optional.empty());
+
+        flightService.recountSoldSeats(id);
+
+        verify(flightRepository).findWithLockById(id);
         verifyNoMoreInteractions(flightRepository);
     }
 
@@ -1,27 +1,41 @@
 package org.example.airlineapi.service;
 
+import jakarta.persistence.EntityManager;
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.config.PagingProperties;
 import org.example.airlineapi.exception.ArgumentCannotBeNullException;
+import org.example.airlineapi.exception.IllegalBehaviourException;
 import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.PreconditionFailedException;
+import org.example.airlineapi.mapper.PersonMapper;
 import org.example.airlineapi.model.person.Person;
 import org.example.airlineapi.model.person.PersonSearchCriteria;
 import org.example.airlineapi.model.person.command.CreatePersonCommand;
 import org.example.airlineapi.model.person.dto.PersonDto;
 import org.example.airlineapi.repository.PersonRepository;
+import org.example.airlineapi.repository.ProjectionRepository;
+import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.service.cache.PersonDtoCache;
+import org.example.airlineapi.service.cache.TicketDtoCache;
+import org.example.airlineapi.service.paging.PageQueryExecutor;
 import org.example.airlineapi.utils.Specification.PersonSpecs;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.example.airlineapi.mapper.PersonMapper.fromCommand;
@@ -39,6 +53,24 @@ class PersonServiceTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketDtoCache ticketDtoCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private PersonDtoCache personDtoCache = new PersonDtoCache(new DtoCacheProperties());
+
+    @Spy
+    private PageQueryExecutor pageQueryExecutor = new PageQueryExecutor(new PagingProperties(), null);
+
     @InjectMocks
     private PersonService personService;
 
@@ -70,14 +102,14 @@ class PersonServiceTest {
     void testGetAll_ShouldReturnListOfPersonDtos() {
         List<PersonDto> expectedList = List.of(toDto(person1), toDto(person2));
 
-        when(personRepository.findAll()).thenReturn(List.of(person1, person2));
+        when(projectionRepository.findAll(Person.class, null, PersonMapper.DTO_PROJECTION, Pageable.unpaged()))
+                .thenReturn(expectedList);
         List<PersonDto> result = personService.getAll();
 
         assertEquals(expectedList.size(), result.size());
         assertEquals(expectedList.get(0), result.get(0));
         assertEquals(expectedList.get(1), result.get(1));
-        verify(personRepository).findAll();
-        verifyNoMoreInteractions(personRepository);
+        verifyNoInteractions(personRepository);
     }
 
     @Test
@@ -88,13 +120,15 @@ class PersonServiceTest {
         Specification<Person> specs = PersonSpecs.createSpecs(searchCriteria);
 
 
-        when(personRepository.findAll(specs, pageRequest)).thenReturn(new PageImpl<>(List.of(person1, person2)));
+        when(projectionRepository.findAll(Person.class, specs, PersonMapper.DTO_PROJECTION, pageRequest))
+                .thenReturn(expectedPage.getContent());
+        when(personRepository.count(specs)).thenReturn(2L);
         Page<PersonDto> result = personService.search(pageRequest, searchCriteria);
 
         assertEquals(expectedPage.getTotalElements(), result.getTotalElements());
         assertEquals(expectedPage.getContent().get(0), result.getContent().get(0));
         assertEquals(expectedPage.getContent().get(1), result.getContent().get(1));
-        verify(personRepository).findAll(specs, pageRequest);
+        verify(personRepository).count(specs);
         verifyNoMoreInteractions(personRepository);
     }
 
@@ -112,24 +146,35 @@ class PersonServiceTest {
     @Test
     void testGetById_ShouldReturnPersonDto() {
         long id = 1L;
-        when(personRepository.findById(id)).thenReturn(Optional.ofNullable(person1));
+        when(projectionRepository.findById(Person.class, id, PersonMapper.DTO_PROJECTION)).thenReturn(Optional.of(toDto(person1)));
         PersonDto result = personService.getById(1L);
 
         assertEquals(toDto(person1), result);
-        verify(personRepository).findById(1L);
-        verifyNoMoreInteractions(personRepository);
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void testGetById_SecondRead_ShouldComeFromCache() {
+        long id = 1L;
+        when(projectionRepository.findById(Person.class, id, PersonMapper.DTO_PROJECTION)).thenReturn(Optional.of(toDto(person1)));
+
+        personService.getById(id);
+        PersonDto result = personService.getById(id);
+
+        assertEquals(toDto(person1), result);
+        verify(projectionRepository).findById(Person.class, id, PersonMapper.DTO_PROJECTION);
+        verifyNoMoreInteractions(projectionRepository);
     }
 
     @Test
     void testGetById_PersonNotFound_ShouldThrowNotFoundException() {
         long id = 3L;
-        when(personRepository.findById(id)).thenReturn(Optional.empty());
+        when(projectionRepository.findById(Person.class, id, PersonMapper.DTO_PROJECTION)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
                 .isThrownBy(() -> personService.getById(3L))
                 .withMessage("Person with id 3 not found");
-        verify(personRepository).findById(id);
-        verifyNoMoreInteractions(personRepository);
+        verifyNoInteractions(personRepository);
     }
 
     @Test
@@ -156,10 +201,26 @@ class PersonServiceTest {
         PersonDto expectedDto = toDto(person);
 
         when(personRepository.findById(id)).thenReturn(Optional.ofNullable(person));
-        PersonDto result = personService.update(id, command);
+        PersonDto result = personService.update(id, null, command);
 
         assertEquals(expectedDto, result);
         verify(personRepository).findById(id);
+        verify(personDtoCache).invalidateAfterCommit(id);
+        verify(ticketDtoCache).invalidateAllAfterCommit();
+        verifyNoMoreInteractions(personRepository);
+    }
+
+    @Test
+    void testUpdate_StaleVersion_ShouldThrowPreconditionFailedExceptionWithoutLoadingPerson() {
+        long id = 1L;
+        CreatePersonCommand command = createPersonCommand();
+
+        when(personRepository.findVersionById(id)).thenReturn(Optional.of(2L));
+
+        assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> personService.update(id, Set.of("\"1\""), command))
+                .withMessage("Person with id 1 was updated by another user. Please refresh and try again.");
+        verify(personRepository).findVersionById(id);
         verifyNoMoreInteractions(personRepository);
     }
 
@@ -171,7 +232,7 @@ class PersonServiceTest {
         when(personRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
-                .isThrownBy(() -> personService.update(id, command))
+                .isThrownBy(() -> personService.update(id, null, command))
                 .withMessage("Person with id 3 not found");
         verify(personRepository).findById(id);
         verifyNoMoreInteractions(personRepository);
@@ -186,6 +247,20 @@ class PersonServiceTest {
 
         verify(personRepository).findById(id);
         verify(personRepository).delete(person1);
+        verify(personDtoCache).invalidateAfterCommit(id);
+        verifyNoMoreInteractions(personRepository);
+    }
+
+    @Test
+    void testDelete_PersonHasTickets_ShouldThrowIllegalBehaviourException() {
+        long id = 1L;
+        when(personRepository.findById(id)).thenReturn(Optional.ofNullable(person1));
+        when(ticketRepository.existsByPersonId(id)).thenReturn(true);
+
+        assertThatExceptionOfType(IllegalBehaviourException.class)
+                .isThrownBy(() -> personService.delete(id))
+                .withMessage("Person with id 1 has tickets. Please delete tickets first.");
+        verify(personRepository).findById(id);
         verifyNoMoreInteractions(personRepository);
     }
 
@@ -1,20 +1,39 @@
 package org.example.airlineapi.service;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.OptimisticLockException;
+import org.example.airlineapi.config.BookingMode;
+import org.example.airlineapi.config.BookingProperties;
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.config.PagingProperties;
 import org.example.airlineapi.exception.AlreadyHaveTicketException;
-import org.example.airlineapi.exception.OverbookingException;
 import org.example.airlineapi.exception.NotFoundException;
+import org.example.airlineapi.exception.OverbookingException;
+import org.example.airlineapi.exception.PreconditionFailedException;
 import org.example.airlineapi.exception.UpdateOptimisticLockingException;
+import org.example.airlineapi.exception.model.BookedSeatException;
+import org.example.airlineapi.mapper.TicketMapper;
 import org.example.airlineapi.model.flight.Flight;
 import org.example.airlineapi.model.person.Person;
 import org.example.airlineapi.model.ticket.Ticket;
 import org.example.airlineapi.model.ticket.TicketSearchCriteria;
+import org.example.airlineapi.model.ticket.command.CreateGroupTicketCommand;
 import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
 import org.example.airlineapi.model.ticket.command.UpdateTicketPersonCommand;
 import org.example.airlineapi.model.ticket.dto.TicketDto;
 import org.example.airlineapi.repository.FlightRepository;
 import org.example.airlineapi.repository.PersonRepository;
+import org.example.airlineapi.repository.ProjectionRepository;
+import org.example.airlineapi.repository.TicketBatchRepository;
 import org.example.airlineapi.repository.TicketRepository;
+import org.example.airlineapi.repository.projection.TicketRow;
+import org.example.airlineapi.service.booking.SeatLockTable;
+import org.example.airlineapi.service.booking.TicketNumberAllocator;
+import org.example.airlineapi.service.cache.TicketDtoCache;
+import org.example.airlineapi.service.inventory.SeatHoldRegistry;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.example.airlineapi.service.inventory.SoldSeatsReconciler;
+import org.example.airlineapi.service.paging.PageQueryExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,7 +41,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,10 +51,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
@@ -42,7 +66,9 @@ import static org.example.airlineapi.mapper.TicketMapper.toDto;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -51,22 +77,51 @@ class TicketServiceTest {
     @Mock
     private TicketRepository ticketRepository;
 
+    @Mock
+    private TicketBatchRepository ticketBatchRepository;
+
     @Mock
     private PersonRepository personRepository;
 
     @Mock
     private FlightRepository flightRepository;
 
+    @Mock
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private SeatInventory seatInventory;
+
+    @Mock
+    private SoldSeatsReconciler soldSeatsReconciler;
+
+    @Mock
+    private SeatLockTable seatLockTable;
+
+    @Mock
+    private SeatHoldRegistry seatHoldRegistry;
+
+    @Mock
+    private TicketNumberAllocator ticketNumberAllocator;
+
+    @Spy
+    private BookingProperties bookingProperties = new BookingProperties();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TicketDtoCache ticketDtoCache = new TicketDtoCache(new DtoCacheProperties());
+
+    @Spy
+    private PageQueryExecutor pageQueryExecutor = new PageQueryExecutor(new PagingProperties(), null);
+
     @InjectMocks
     private TicketService ticketService;
 
     @Captor
     private ArgumentCaptor<Specification> specsCaptor;
 
-    @Captor
-    private ArgumentCaptor<Pageable> pageableCaptor;
-
-
     Ticket ticket1;
     Ticket ticket2;
     Flight flight;
@@ -113,13 +168,15 @@ class TicketServiceTest {
         TicketSearchCriteria searchCriteria = TicketSearchCriteria.builder().build();
         Page<TicketDto> expectedPage = new PageImpl<>(List.of(toDto(ticket1), toDto(ticket2)));
 
-        when(ticketRepository.findAll(specsCaptor.capture(), pageableCaptor.capture())).thenReturn(new PageImpl(List.of(ticket1, ticket2)));
+        when(projectionRepository.findAll(eq(Ticket.class), specsCaptor.capture(), eq(TicketMapper.ROW_PROJECTION), eq(pageRequest)))
+                .thenReturn(List.of(row(ticket1), row(ticket2)));
+        when(ticketRepository.count(any(Specification.class))).thenReturn(2L);
         Page<TicketDto> result = ticketService.getAllByFlightId(flightId, pageRequest, searchCriteria);
 
         assertEquals(expectedPage.getTotalElements(), result.getTotalElements());
         assertEquals(expectedPage.getContent().get(0), result.getContent().get(0));
         assertEquals(expectedPage.getContent().get(1), result.getContent().get(1));
-        verify(ticketRepository).findAll(specsCaptor.getValue(), pageableCaptor.getValue());
+        verify(ticketRepository).count(specsCaptor.getValue());
         verifyNoMoreInteractions(ticketRepository);
     }
 
@@ -130,37 +187,37 @@ class TicketServiceTest {
         TicketSearchCriteria searchCriteria = TicketSearchCriteria.builder().build();
         Page<TicketDto> expectedPage = new PageImpl<>(List.of(toDto(ticket1), toDto(ticket2)));
 
-        when(ticketRepository.findAll(specsCaptor.capture(), pageableCaptor.capture())).thenReturn(new PageImpl(List.of(ticket1, ticket2)));
+        when(projectionRepository.findAll(eq(Ticket.class), specsCaptor.capture(), eq(TicketMapper.ROW_PROJECTION), eq(pageRequest)))
+                .thenReturn(List.of(row(ticket1), row(ticket2)));
+        when(ticketRepository.count(any(Specification.class))).thenReturn(2L);
         Page<TicketDto> result = ticketService.getAllByPersonId(personId, pageRequest, searchCriteria);
 
         assertEquals(expectedPage.getTotalElements(), result.getTotalElements());
         assertEquals(expectedPage.getContent().get(0), result.getContent().get(0));
         assertEquals(expectedPage.getContent().get(1), result.getContent().get(1));
-        verify(ticketRepository).findAll(specsCaptor.getValue(), pageableCaptor.getValue());
+        verify(ticketRepository).count(specsCaptor.getValue());
         verifyNoMoreInteractions(ticketRepository);
     }
 
     @Test
     void testGetById_ShouldReturnTicketDto() {
         long id = 1L;
-        when(ticketRepository.findById(id)).thenReturn(Optional.ofNullable(ticket1));
+        when(projectionRepository.findById(Ticket.class, id, TicketMapper.ROW_PROJECTION)).thenReturn(Optional.of(row(ticket1)));
         TicketDto result = ticketService.getById(1L);
 
         assertEquals(toDto(ticket1), result);
-        verify(ticketRepository).findById(1L);
-        verifyNoMoreInteractions(ticketRepository);
+        verifyNoInteractions(ticketRepository);
     }
 
     @Test
     void testGetById_TicketNotFound_ShouldThrowNotFoundException() {
         long id = 3L;
-        when(ticketRepository.findById(id)).thenReturn(Optional.empty());
+        when(projectionRepository.findById(Ticket.class, id, TicketMapper.ROW_PROJECTION)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
                 .isThrownBy(() -> ticketService.getById(3L))
                 .withMessage("Ticket with id 3 not found");
-        verify(ticketRepository).findById(3L);
-        verifyNoMoreInteractions(ticketRepository);
+        verifyNoInteractions(ticketRepository);
     }
 
     @Test
@@ -177,17 +234,20 @@ class TicketServiceTest {
         when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.ofNullable(person));
         when(ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), flightId)).thenReturn(List.of());
         when(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)).thenReturn(false);
+        when(flightRepository.incrementSoldSeats(flightId, 1)).thenReturn(1);
         when(ticketRepository.save(any(Ticket.class))).thenReturn(ticket);
 
         TicketDto result = ticketService.create(flightId, command);
 
         assertEquals(expectedDto, result);
         verify(flightRepository).findWithLockById(flightId);
+        verify(flightRepository).incrementSoldSeats(flightId, 1);
         verify(personRepository).findWithLockById(command.getPersonId());
         verify(ticketRepository).findByPersonIdAndFlightId(command.getPersonId(), flightId);
         verify(ticketRepository).existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId);
         verify(ticketRepository).save(any(Ticket.class));
-        verifyNoMoreInteractions(ticketRepository, flightRepository, personRepository);
+        verify(seatInventory).occupyAfterCommit(flightId, command.getSeatNumber());
+        verifyNoMoreInteractions(ticketRepository, flightRepository, personRepository, seatInventory);
     }
 
     @Test
@@ -213,11 +273,13 @@ class TicketServiceTest {
         when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.ofNullable(flight));
         when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.empty());
         when(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)).thenReturn(false);
+        when(flightRepository.incrementSoldSeats(flightId, 1)).thenReturn(1);
 
         assertThatExceptionOfType(NotFoundException.class)
                 .isThrownBy(() -> ticketService.create(flightId, command))
                 .withMessage("Person with id " + command.getPersonId() + " not found");
         verify(flightRepository).findWithLockById(flightId);
+        verify(flightRepository).incrementSoldSeats(flightId, 1);
         verify(personRepository).findWithLockById(command.getPersonId());
         verify(ticketRepository).existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId);
         verifyNoMoreInteractions(flightRepository, personRepository, ticketRepository);
@@ -227,16 +289,17 @@ class TicketServiceTest {
     void testCreate_NoAvailableSeats_ShouldThrowLackOfSeatException() {
         long flightId = 1L;
         CreateTicketCommand command = createTicketCommand();
-        flight.setTickets(Set.of(ticket2));
-        flight.setNumberOfSeats(0);
+        flight.setSoldSeats(100);
 
         when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
         when(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)).thenReturn(false);
+        when(flightRepository.incrementSoldSeats(flightId, 1)).thenReturn(0);
 
         assertThatExceptionOfType(OverbookingException.class)
                 .isThrownBy(() -> ticketService.create(flightId, command))
                 .withMessage("Flight with id " + flightId + " has no available seats");
         verify(flightRepository).findWithLockById(flightId);
+        verify(flightRepository).incrementSoldSeats(flightId, 1);
         verify(ticketRepository).existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId);
         verifyNoMoreInteractions(flightRepository, personRepository, ticketRepository);
     }
@@ -256,17 +319,346 @@ class TicketServiceTest {
         when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.of(person));
         when(ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), flightId)).thenReturn(List.of(tempTicket));
         when(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)).thenReturn(false);
+        when(flightRepository.incrementSoldSeats(flightId, 1)).thenReturn(1);
 
         assertThatExceptionOfType(AlreadyHaveTicketException.class)
                 .isThrownBy(() -> ticketService.create(flightId, command))
                 .withMessage("Person with id " + command.getPersonId() + " already has a ticket for flight with id " + flightId);
         verify(flightRepository).findWithLockById(flightId);
+        verify(flightRepository).incrementSoldSeats(flightId, 1);
         verify(personRepository).findWithLockById(command.getPersonId());
         verify(ticketRepository).findByPersonIdAndFlightId(command.getPersonId(), flightId);
         verify(ticketRepository).existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId);
         verifyNoMoreInteractions(flightRepository, personRepository, ticketRepository);
     }
 
+    @Test
+    void testCreate_SeatStripedMode_ShouldCreateTicketWithoutRowLocks() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.SEAT_STRIPED);
+        CreateTicketCommand command = createTicketCommand();
+        Ticket ticket = fromCommand(command);
+        ticket.setFlight(flight);
+        ticket.setPerson(person);
+        TicketDto expectedDto = toDto(ticket);
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)).thenReturn(false);
+        when(personRepository.findById(command.getPersonId())).thenReturn(Optional.of(person));
+        when(ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), flightId)).thenReturn(List.of());
+        when(ticketRepository.save(any(Ticket.class))).thenReturn(ticket);
+
+        TicketDto result = ticketService.create(flightId, command);
+
+        assertEquals(expectedDto, result);
+        verify(seatLockTable).lockSeatAndPassengerUntilCompletion(flightId, command.getSeatNumber(), command.getPersonId());
+        verify(flightRepository).findById(flightId);
+        verify(soldSeatsReconciler).recountAfterCommit(flightId);
+        verify(personRepository).findById(command.getPersonId());
+        verify(ticketRepository).existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId);
+        verify(ticketRepository).findByPersonIdAndFlightId(command.getPersonId(), flightId);
+        verify(ticketRepository).save(any(Ticket.class));
+        verify(seatInventory).occupyAfterCommit(flightId, command.getSeatNumber());
+        verifyNoMoreInteractions(ticketRepository, flightRepository, personRepository, seatLockTable);
+    }
+
+    @Test
+    void testCreate_SeatStripedMode_SeatOutsideFlight_ShouldThrowOverbookingException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.SEAT_STRIPED);
+        flight.setNumberOfSeats(3);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+
+        assertThatExceptionOfType(OverbookingException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Flight with id " + flightId + " has no seat number " + command.getSeatNumber());
+        verify(flightRepository).findById(flightId);
+        verifyNoMoreInteractions(flightRepository, personRepository, ticketRepository);
+    }
+
+    @Test
+    void testCreate_SeatOutsideFlight_ShouldThrowOverbookingException() {
+        long flightId = 1L;
+        CreateTicketCommand command = CreateTicketCommand.builder()
+                .seatNumber(1L << 36)
+                .price(BigDecimal.valueOf(100))
+                .personId(1L)
+                .build();
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+
+        assertThatExceptionOfType(OverbookingException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage(MessageFormat.format("Flight with id {0} has no seat number {1}", flightId, 1L << 36));
+        verifyNoInteractions(ticketRepository, personRepository, seatInventory);
+    }
+
+    @Test
+    void testCreate_SeatStripedMode_SeatAlreadyBooked_ShouldThrowBookedSeatException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.SEAT_STRIPED);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId)).thenReturn(true);
+
+        assertThatExceptionOfType(BookedSeatException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Flight with id " + flightId + " already has a ticket with seat number " + command.getSeatNumber());
+        verify(ticketRepository).existsBySeatNumberAndFlightId(command.getSeatNumber(), flightId);
+        verifyNoMoreInteractions(personRepository, ticketRepository);
+    }
+
+    @Test
+    void testCreate_ConstraintMode_ShouldInsertWithoutLocks() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.CONSTRAINT);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(personRepository.findById(command.getPersonId())).thenReturn(Optional.of(person));
+        when(ticketNumberAllocator.nextTicketNumber(flightId, flight.getFlightNumber())).thenReturn("AA123-7");
+        when(ticketBatchRepository.insertWithinFlight(any(Ticket.class))).thenReturn(OptionalLong.of(7L));
+
+        TicketDto result = ticketService.create(flightId, command);
+
+        assertEquals(7L, result.getId());
+        assertEquals("AA123-7", result.getTicketNumber());
+        assertEquals(command.getSeatNumber(), result.getSeatNumber());
+        assertEquals(person.getFirstName(), result.getPerson().getFirstName());
+        assertEquals(flight.getFlightNumber(), result.getFlight().getFlightNumber());
+        verify(soldSeatsReconciler).recountAfterCommit(flightId);
+        verify(seatInventory).occupyAfterCommit(flightId, command.getSeatNumber());
+        verify(flightRepository).findById(flightId);
+        verifyNoMoreInteractions(flightRepository);
+        verifyNoInteractions(ticketRepository, seatLockTable);
+    }
+
+    @Test
+    void testCreate_ConstraintMode_SeatConstraintViolated_ShouldThrowBookedSeatException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.CONSTRAINT);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(personRepository.findById(command.getPersonId())).thenReturn(Optional.of(person));
+        when(ticketBatchRepository.insertWithinFlight(any(Ticket.class)))
+                .thenThrow(new DuplicateKeyException("insert failed",
+                        new SQLException("duplicate key value violates unique constraint \"ticket_flight_seat_uk\"")));
+
+        assertThatExceptionOfType(BookedSeatException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Flight with id " + flightId + " already has a ticket with seat number " + command.getSeatNumber());
+        verify(seatInventory).evict(flightId);
+        verifyNoInteractions(ticketRepository, soldSeatsReconciler);
+    }
+
+    @Test
+    void testCreate_ConstraintMode_PassengerConstraintViolated_ShouldThrowAlreadyHaveTicketException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.CONSTRAINT);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(personRepository.findById(command.getPersonId())).thenReturn(Optional.of(person));
+        when(ticketBatchRepository.insertWithinFlight(any(Ticket.class)))
+                .thenThrow(new DuplicateKeyException("insert failed",
+                        new SQLException("Unique index or primary key violation: \"PUBLIC.TICKET_FLIGHT_PERSON_UK_INDEX_9\"")));
+
+        assertThatExceptionOfType(AlreadyHaveTicketException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Person with id " + command.getPersonId() + " already has a ticket for flight with id " + flightId);
+    }
+
+    @Test
+    void testCreate_ConstraintMode_NothingInserted_ShouldThrowOverbookingException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.CONSTRAINT);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(personRepository.findById(command.getPersonId())).thenReturn(Optional.of(person));
+        when(ticketBatchRepository.insertWithinFlight(any(Ticket.class))).thenReturn(OptionalLong.empty());
+
+        assertThatExceptionOfType(OverbookingException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Flight with id " + flightId + " has no seat number " + command.getSeatNumber());
+        verifyNoInteractions(seatInventory, soldSeatsReconciler);
+    }
+
+    @Test
+    void testCreate_ConstraintMode_FlightNotFound_ShouldThrowNotFoundException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.CONSTRAINT);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(NotFoundException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Flight with id " + flightId + " not found");
+        verifyNoInteractions(ticketBatchRepository, ticketNumberAllocator);
+    }
+
+    @Test
+    void testCreate_ConstraintMode_PersonNotFound_ShouldThrowNotFoundException() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.CONSTRAINT);
+        CreateTicketCommand command = createTicketCommand();
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(personRepository.findById(command.getPersonId())).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(NotFoundException.class)
+                .isThrownBy(() -> ticketService.create(flightId, command))
+                .withMessage("Person with id " + command.getPersonId() + " not found");
+        verifyNoInteractions(ticketBatchRepository, ticketNumberAllocator);
+    }
+
+    @Test
+    void testCreateAll_ShouldInsertAllTicketsInOneBatch() {
+        long flightId = 1L;
+        Person secondPerson = Person.builder().id(2L).firstName("Bob").lastName("Smith").build();
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 5L, 2L);
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L, 2L));
+        when(personRepository.findAllWithLockByIdInOrderById(Set.of(1L, 2L))).thenReturn(List.of(person, secondPerson));
+        when(ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(flightId, Set.of(1L, 2L))).thenReturn(List.of());
+        when(flightRepository.incrementSoldSeats(flightId, 2)).thenReturn(1);
+        when(ticketNumberAllocator.nextTicketNumber(flightId, "AA123")).thenReturn("AA123-3", "AA123-4");
+
+        List<TicketDto> result = ticketService.createAll(flightId, command);
+
+        assertEquals(2, result.size());
+        assertEquals(4L, result.get(0).getSeatNumber());
+        assertEquals("AA123-3", result.get(0).getTicketNumber());
+        assertEquals("Bob", result.get(1).getPerson().getFirstName());
+        assertEquals("AA123-4", result.get(1).getTicketNumber());
+        verify(ticketBatchRepository).insertAll(any());
+        verify(seatInventory).occupyAfterCommit(flightId, 4L);
+        verify(seatInventory).occupyAfterCommit(flightId, 5L);
+        verify(flightRepository).findWithLockById(flightId);
+        verify(flightRepository).incrementSoldSeats(flightId, 2);
+        verifyNoMoreInteractions(flightRepository, ticketBatchRepository);
+    }
+
+    @Test
+    void testCreateAll_SeatStripedMode_ShouldRecountAfterCommitInsteadOfCounting() {
+        long flightId = 1L;
+        bookingProperties.setMode(BookingMode.SEAT_STRIPED);
+        Person secondPerson = Person.builder().id(2L).build();
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 5L, 2L);
+
+        when(flightRepository.findById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of());
+        when(personRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(person, secondPerson));
+        when(ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(flightId, Set.of(1L, 2L))).thenReturn(List.of());
+
+        assertEquals(2, ticketService.createAll(flightId, command).size());
+        verify(soldSeatsReconciler).recountAfterCommit(flightId);
+        verify(flightRepository).findById(flightId);
+        verifyNoMoreInteractions(flightRepository);
+    }
+
+    @Test
+    void testCreateAll_SeatConstraintViolated_ShouldNameGroupSeats() {
+        long flightId = 1L;
+        Person secondPerson = Person.builder().id(2L).build();
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 5L, 2L);
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of());
+        when(personRepository.findAllWithLockByIdInOrderById(Set.of(1L, 2L))).thenReturn(List.of(person, secondPerson));
+        when(ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(flightId, Set.of(1L, 2L))).thenReturn(List.of());
+        when(flightRepository.incrementSoldSeats(flightId, 2)).thenReturn(1);
+        doThrow(new DuplicateKeyException("insert failed",
+                new SQLException("duplicate key value violates unique constraint \"ticket_flight_seat_uk\"")))
+                .when(ticketBatchRepository).insertAll(any());
+
+        assertThatExceptionOfType(BookedSeatException.class)
+                .isThrownBy(() -> ticketService.createAll(flightId, command))
+                .withMessage("Flight with id 1 already has a ticket with one of seat numbers 4, 5");
+        verify(seatInventory).evict(flightId);
+        verifyNoMoreInteractions(seatInventory);
+    }
+
+    @Test
+    void testCreateAll_SeatAlreadyBooked_ShouldThrowBookedSeatException() {
+        long flightId = 1L;
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 2L, 2L);
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L, 2L));
+
+        assertThatExceptionOfType(BookedSeatException.class)
+                .isThrownBy(() -> ticketService.createAll(flightId, command))
+                .withMessage("Flight with id 1 already has a ticket with seat number 2");
+        verifyNoInteractions(ticketBatchRepository, personRepository);
+    }
+
+    @Test
+    void testCreateAll_SeatOutsideFlight_ShouldThrowOverbookingException() {
+        long flightId = 1L;
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 101L, 2L);
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+
+        assertThatExceptionOfType(OverbookingException.class)
+                .isThrownBy(() -> ticketService.createAll(flightId, command))
+                .withMessage("Flight with id 1 has no seat number 101");
+        verifyNoInteractions(ticketBatchRepository, ticketRepository, personRepository);
+    }
+
+    @Test
+    void testCreateAll_NotEnoughSeats_ShouldThrowOverbookingException() {
+        long flightId = 1L;
+        Person secondPerson = Person.builder().id(2L).build();
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 5L, 2L);
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of());
+        when(personRepository.findAllWithLockByIdInOrderById(Set.of(1L, 2L))).thenReturn(List.of(person, secondPerson));
+        when(ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(flightId, Set.of(1L, 2L))).thenReturn(List.of());
+        when(flightRepository.incrementSoldSeats(flightId, 2)).thenReturn(0);
+        when(flightRepository.findSoldSeatsById(flightId)).thenReturn(Optional.of(99));
+
+        assertThatExceptionOfType(OverbookingException.class)
+                .isThrownBy(() -> ticketService.createAll(flightId, command))
+                .withMessage("Flight with id 1 has only 1 available seats");
+        verifyNoInteractions(ticketBatchRepository);
+    }
+
+    @Test
+    void testCreateAll_SamePersonTwice_ShouldThrowAlreadyHaveTicketException() {
+        long flightId = 1L;
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 5L, 1L);
+
+        assertThatExceptionOfType(AlreadyHaveTicketException.class)
+                .isThrownBy(() -> ticketService.createAll(flightId, command))
+                .withMessage("Group booking contains person with id 1 more than once");
+        verifyNoInteractions(flightRepository, ticketRepository, ticketBatchRepository, personRepository);
+    }
+
+    @Test
+    void testCreateAll_PersonAlreadyPassenger_ShouldThrowAlreadyHaveTicketException() {
+        long flightId = 1L;
+        Person secondPerson = Person.builder().id(2L).build();
+        CreateGroupTicketCommand command = createGroupTicketCommand(4L, 1L, 5L, 2L);
+
+        when(flightRepository.findWithLockById(flightId)).thenReturn(Optional.of(flight));
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of());
+        when(personRepository.findAllWithLockByIdInOrderById(Set.of(1L, 2L))).thenReturn(List.of(person, secondPerson));
+        when(ticketRepository.findPersonIdsByFlightIdAndPersonIdIn(flightId, Set.of(1L, 2L))).thenReturn(List.of(2L));
+
+        assertThatExceptionOfType(AlreadyHaveTicketException.class)
+                .isThrownBy(() -> ticketService.createAll(flightId, command))
+                .withMessage("Person with id 2 already has a ticket for flight with id 1");
+        verifyNoInteractions(ticketBatchRepository);
+    }
+
     @Test
     void testUpdatePerson_ShouldUpdateTicketPerson() {
         long ticketId = 1L;
@@ -277,15 +669,16 @@ class TicketServiceTest {
         ticket.setPerson(person);
         TicketDto expectedDto = toDto(ticket);
 
-        when(ticketRepository.findById(ticketId)).thenReturn(Optional.ofNullable(ticket));
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.ofNullable(ticket));
         when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.ofNullable(person));
         when(ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), ticket.getFlight().getId())).thenReturn(List.of());
 
-        TicketDto result = ticketService.updatePerson(flightId, ticketId, command);
+        TicketDto result = ticketService.updatePerson(flightId, ticketId, null, command);
 
         assertEquals(expectedDto, result);
-        verify(ticketRepository).findById(ticketId);
+        verify(ticketRepository).findWithFlightAndPersonById(ticketId);
         verify(personRepository).findWithLockById(command.getPersonId());
+        verify(ticketDtoCache).invalidateAfterCommit(ticketId);
         verifyNoMoreInteractions(ticketRepository, personRepository);
     }
 
@@ -295,13 +688,13 @@ class TicketServiceTest {
         long flightId = 1L;
         UpdateTicketPersonCommand command = updateTicketPersonCommand();
 
-        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket1));
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.of(ticket1));
         when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
-                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, command))
+                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, null, command))
                 .withMessage("Person with id " + command.getPersonId() + " not found");
-        verify(ticketRepository).findById(ticketId);
+        verify(ticketRepository).findWithFlightAndPersonById(ticketId);
         verify(personRepository).findWithLockById(command.getPersonId());
         verifyNoMoreInteractions(ticketRepository, personRepository);
     }
@@ -315,14 +708,14 @@ class TicketServiceTest {
                 .build();
         UpdateTicketPersonCommand command = updateTicketPersonCommand();
 
-        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket1));
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.of(ticket1));
         when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.of(person));
         when(ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), flight.getId())).thenReturn(List.of(tempTicket));
 
         assertThatExceptionOfType(AlreadyHaveTicketException.class)
-                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, command))
+                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, null, command))
                 .withMessage("Person with id " + command.getPersonId() + " already has a ticket for flight with id " + flight.getId());
-        verify(ticketRepository).findById(ticketId);
+        verify(ticketRepository).findWithFlightAndPersonById(ticketId);
         verify(personRepository).findWithLockById(command.getPersonId());
         verify(ticketRepository).findByPersonIdAndFlightId(command.getPersonId(), flight.getId());
         verifyNoMoreInteractions(ticketRepository, personRepository);
@@ -335,13 +728,62 @@ class TicketServiceTest {
         long ticketId = 3L;
         UpdateTicketPersonCommand command = updateTicketPersonCommand();
 
-        when(ticketRepository.findById(ticketId)).thenReturn(Optional.empty());
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(NotFoundException.class)
-                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, command))
+                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, null, command))
                 .withMessage("Ticket with id 3 not found");
-        verify(ticketRepository).findById(ticketId);
+        verify(ticketRepository).findWithFlightAndPersonById(ticketId);
+        verifyNoMoreInteractions(ticketRepository);
+    }
+
+    @Test
+    void testUpdatePerson_StaleVersion_ShouldThrowPreconditionFailedException() {
+        long flightId = 1L;
+        long ticketId = 1L;
+        UpdateTicketPersonCommand command = updateTicketPersonCommand();
+        ticket1.setVersion(2L);
+
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.ofNullable(ticket1));
+
+        assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, Set.of("\"1.0.0\""), command))
+                .withMessage("Ticket with id 1 was updated by another user. Please refresh and try again.");
+        verify(ticketRepository).findWithFlightAndPersonById(ticketId);
         verifyNoMoreInteractions(ticketRepository);
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void testUpdatePerson_PassengerUpdated_ShouldThrowPreconditionFailedException() {
+        long flightId = 1L;
+        long ticketId = 1L;
+        UpdateTicketPersonCommand command = updateTicketPersonCommand();
+        ticket1.getPerson().setVersion(2L);
+
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.ofNullable(ticket1));
+
+        assertThatExceptionOfType(PreconditionFailedException.class)
+                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, Set.of("\"0.0.0\"", "\"0.1.0\""), command))
+                .withMessage("Ticket with id 1 was updated by another user. Please refresh and try again.");
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void testUpdatePerson_TicketWithoutPerson_ShouldMatchZeroPersonVersion() {
+        long flightId = 1L;
+        long ticketId = 1L;
+        UpdateTicketPersonCommand command = updateTicketPersonCommand();
+        ticket1.setPerson(null);
+
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.of(ticket1));
+        when(personRepository.findWithLockById(command.getPersonId())).thenReturn(Optional.of(person));
+        when(ticketRepository.findByPersonIdAndFlightId(command.getPersonId(), flightId)).thenReturn(List.of());
+
+        TicketDto result = ticketService.updatePerson(flightId, ticketId, Set.of("\"0.0.0\""), command);
+
+        assertEquals(person.getFirstName(), result.getPerson().getFirstName());
+        verify(ticketDtoCache).invalidateAfterCommit(ticketId);
     }
 
     @Test
@@ -350,14 +792,14 @@ class TicketServiceTest {
         long ticketId = 1L;
         UpdateTicketPersonCommand command = updateTicketPersonCommand();
 
-        when(ticketRepository.findById(ticketId)).thenReturn(Optional.ofNullable(ticket1));
+        when(ticketRepository.findWithFlightAndPersonById(ticketId)).thenReturn(Optional.ofNullable(ticket1));
         when(personRepository.findWithLockById(command.getPersonId())).thenThrow(new OptimisticLockException());
 
         assertThatExceptionOfType(UpdateOptimisticLockingException.class)
-                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, command))
+                .isThrownBy(() -> ticketService.updatePerson(flightId, ticketId, null, command))
                 .withMessage("Ticket with id 1 was updated by another user. Please send again your request");
 
-        verify(ticketRepository).findById(ticketId);
+        verify(ticketRepository).findWithFlightAndPersonById(ticketId);
         verify(personRepository).findWithLockById(command.getPersonId());
         verifyNoMoreInteractions(ticketRepository, personRepository);
     }
@@ -370,10 +812,24 @@ class TicketServiceTest {
                 .build();
     }
 
+    CreateGroupTicketCommand createGroupTicketCommand(long firstSeat, long firstPersonId, long secondSeat, long secondPersonId) {
+        return CreateGroupTicketCommand.builder()
+                .tickets(List.of(
+                        CreateTicketCommand.builder().seatNumber(firstSeat).personId(firstPersonId).price(BigDecimal.TEN).build(),
+                        CreateTicketCommand.builder().seatNumber(secondSeat).personId(secondPersonId).price(BigDecimal.TEN).build()))
+                .build();
+    }
+
     UpdateTicketPersonCommand updateTicketPersonCommand() {
         return UpdateTicketPersonCommand.builder()
                 .personId(2L)
                 .build();
     }
 
-}
\ No newline at end of file
+    private static TicketRow row(Ticket ticket) {
+        return new TicketRow(ticket.getId(), ticket.getSeatNumber(), ticket.getTicketNumber(), ticket.getPrice(),
+                ticket.getVersion(), ticket.getFlight().getId(), ticket.getFlight().getFlightNumber(),
+                ticket.getFlight().getOrigin(), ticket.getFlight().getDestination(), ticket.getFlight().getVersion(),
+                ticket.getPerson().getFirstName(), ticket.getPerson().getLastName(), ticket.getPerson().getVersion());
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.airlineapi.service.booking;
+
+import org.example.airlineapi.config.TicketNumberProperties;
+import org.example.airlineapi.repository.TicketNumberCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TicketNumberAllocatorTest {
+
+    @Mock
+    private TicketNumberCounterRepository ticketNumberCounterRepository;
+
+    private TicketNumberAllocator ticketNumberAllocator;
+
+    @BeforeEach
+    void setUp() {
+        TicketNumberProperties properties = new TicketNumberProperties();
+        properties.setBlockSize(3);
+        ticketNumberAllocator = new TicketNumberAllocator(ticketNumberCounterRepository, properties);
+    }
+
+    @Test
+    void testNext_ShouldLeaseOnlyWhenBlockIsUsedUp() {
+        long flightId = 1L;
+        when(ticketNumberCounterRepository.leaseBlock(flightId, 3)).thenReturn(1L, 10L);
+
+        assertEquals(1L, ticketNumberAllocator.next(flightId));
+        assertEquals(2L, ticketNumberAllocator.next(flightId));
+        assertEquals(3L, ticketNumberAllocator.next(flightId));
+        assertEquals(10L, ticketNumberAllocator.next(flightId));
+
+        verify(ticketNumberCounterRepository, times(2)).leaseBlock(flightId, 3);
+        verifyNoMoreInteractions(ticketNumberCounterRepository);
+    }
+
+    @Test
+    void testNext_ShouldKeepSeparateBlocksPerFlight() {
+        when(ticketNumberCounterRepository.leaseBlock(1L, 3)).thenReturn(1L);
+        when(ticketNumberCounterRepository.leaseBlock(2L, 3)).thenReturn(7L);
+
+        assertEquals("AA1-1", ticketNumberAllocator.nextTicketNumber(1L, "AA1"));
+        assertEquals("BB2-7", ticketNumberAllocator.nextTicketNumber(2L, "BB2"));
+        assertEquals("AA1-2", ticketNumberAllocator.nextTicketNumber(1L, "AA1"));
+    }
+
+    @Test
+    void testNext_BlockLeasedInUncommittedTransaction_ShouldBeShared() {
+        long flightId = 1L;
+        when(ticketNumberCounterRepository.leaseBlock(flightId, 3)).thenReturn(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(1L, ticketNumberAllocator.next(flightId));
+            assertEquals(2L, ticketNumberAllocator.next(flightId));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(ticketNumberCounterRepository).leaseBlock(flightId, 3);
+    }
+
+    @Test
+    void testNext_CounterCreatedConcurrently_ShouldLeaseAgain() {
+        long flightId = 1L;
+        when(ticketNumberCounterRepository.leaseBlock(flightId, 3))
+                .thenThrow(new DuplicateKeyException("counter exists"))
+                .thenReturn(4L);
+
+        assertEquals(4L, ticketNumberAllocator.next(flightId));
+        assertEquals(5L, ticketNumberAllocator.next(flightId));
+
+        verify(ticketNumberCounterRepository, times(2)).leaseBlock(flightId, 3);
+    }
+
+    @Test
+    void testRegister_ShouldCreateCounter() {
+        ticketNumberAllocator.register(5L);
+
+        verify(ticketNumberCounterRepository).create(5L);
+    }
+
+    @Test
+    void testForget_ShouldDeleteCounterAndLeaseAgain() {
+        long flightId = 1L;
+        when(ticketNumberCounterRepository.leaseBlock(flightId, 3)).thenReturn(1L, 1L);
+
+        ticketNumberAllocator.next(flightId);
+        ticketNumberAllocator.forget(flightId);
+
+        assertEquals(1L, ticketNumberAllocator.next(flightId));
+        verify(ticketNumberCounterRepository).delete(flightId);
+        verify(ticketNumberCounterRepository, times(2)).leaseBlock(flightId, 3);
+    }
+}
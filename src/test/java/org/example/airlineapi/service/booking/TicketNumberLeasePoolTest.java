@@ -0,0 +1,59 @@
+package org.example.airlineapi.service.booking;
+
+import org.example.airlineapi.model.ticket.command.CreateTicketCommand;
+import org.example.airlineapi.model.ticket.dto.TicketDto;
+import org.example.airlineapi.service.TicketService;
+import org.example.airlineapi.service.inventory.SeatInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lease-pool",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000"})
+@ActiveProfiles("test")
+@Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/init_data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/remove_data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class TicketNumberLeasePoolTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @AfterEach
+    void tearDown() {
+        seatInventory.evictAll();
+    }
+
+    @Test
+    void create_PoolExhaustedWhileBookingHoldsFlightLock_ShouldLeaseTicketNumber() throws Exception {
+        CreateTicketCommand command = CreateTicketCommand.builder()
+                .seatNumber(3L)
+                .personId(4L)
+                .price(BigDecimal.TEN)
+                .build();
+
+        // The booking takes the last pooled connection and locks the flight row before it leases a block.
+        try (Connection ignored = dataSource.getConnection()) {
+            TicketDto ticket = ticketService.create(3L, command);
+
+            assertEquals("CC789-1", ticket.getTicketNumber());
+        }
+    }
+}
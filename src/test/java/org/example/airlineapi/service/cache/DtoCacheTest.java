@@ -0,0 +1,107 @@
+package org.example.airlineapi.service.cache;
+
+import org.example.airlineapi.config.DtoCacheProperties;
+import org.example.airlineapi.model.cache.dto.CacheStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DtoCacheTest {
+
+    private DtoCacheProperties properties;
+    private DtoCache<String> cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DtoCacheProperties();
+        properties.setMaxEntries(2);
+        cache = new DtoCache<>("test", properties);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_SecondRead_ShouldNotLoadAgain() {
+        assertEquals("1", cache.get(1, this::load));
+        assertEquals("1", cache.get(1, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(stats(1, 1, 1, 0), cache.getStats());
+    }
+
+    @Test
+    void testGet_BeyondMaxEntries_ShouldDropLeastRecentlyUsed() {
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+        cache.get(1, this::load);
+        cache.get(3, this::load);
+
+        cache.get(1, this::load);
+        cache.get(2, this::load);
+
+        assertEquals(4, loads.get());
+        assertEquals(stats(2, 2, 4, 2), cache.getStats());
+    }
+
+    @Test
+    void testInvalidateAfterCommit_ShouldLoadAgain() {
+        cache.get(1, this::load);
+
+        cache.invalidateAfterCommit(1);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_InvalidatedWhileLoading_ShouldNotCacheLoadedValue() {
+        cache.get(1, id -> {
+            cache.invalidateAfterCommit(id);
+            return "stale";
+        });
+
+        assertEquals("1", cache.get(1, this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_AfterTtl_ShouldLoadAgain() {
+        properties.setTtl(Duration.ZERO);
+
+        cache.get(1, this::load);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_Disabled_ShouldAlwaysLoad() {
+        properties.setEnabled(false);
+
+        cache.get(1, this::load);
+        cache.get(1, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(stats(0, 0, 0, 0), cache.getStats());
+    }
+
+    private String load(long id) {
+        loads.incrementAndGet();
+        return String.valueOf(id);
+    }
+
+    private CacheStatsDto stats(int size, long hits, long misses, long evictions) {
+        return CacheStatsDto.builder()
+                .name("test")
+                .size(size)
+                .maxEntries(2)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .build();
+    }
+}
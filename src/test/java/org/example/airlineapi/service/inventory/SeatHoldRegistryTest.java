@@ -0,0 +1,67 @@
+package org.example.airlineapi.service.inventory;
+
+import org.example.airlineapi.config.SeatHoldProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldRegistryTest {
+
+    private SeatHoldRegistry seatHoldRegistry;
+
+    @BeforeEach
+    void setUp() {
+        SeatHoldProperties properties = new SeatHoldProperties();
+        properties.setTtl(Duration.ofMillis(50));
+        properties.setTick(Duration.ofMillis(10));
+        seatHoldRegistry = new SeatHoldRegistry(properties);
+        seatHoldRegistry.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatHoldRegistry.stop();
+    }
+
+    @Test
+    void testRelease_HoldBeingConverted_ShouldKeepSeatsClaimed() {
+        SeatHold hold = seatHoldRegistry.hold(1L, Set.of(1L, 2L));
+        assertTrue(seatHoldRegistry.beginConversion(hold));
+
+        assertFalse(seatHoldRegistry.release(hold));
+        assertEquals(Set.of(1L, 2L), seatHoldRegistry.getClaimedSeats(1L));
+
+        seatHoldRegistry.completeConversion(hold);
+        assertEquals(Set.of(), seatHoldRegistry.getClaimedSeats(1L));
+        assertTrue(seatHoldRegistry.find(1L, hold.getId()).isEmpty());
+    }
+
+    @Test
+    void testRelease_ShouldUnclaimSeats() {
+        SeatHold hold = seatHoldRegistry.hold(1L, Set.of(1L));
+
+        assertTrue(seatHoldRegistry.release(hold));
+        assertEquals(Set.of(), seatHoldRegistry.getClaimedSeats(1L));
+    }
+
+    @Test
+    void testHold_ShouldExpireAfterTtl() throws InterruptedException {
+        SeatHold first = seatHoldRegistry.hold(1L, Set.of(1L));
+        SeatHold second = seatHoldRegistry.hold(2L, Set.of(1L));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((!first.isExpired() || !second.isExpired()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(first.isExpired());
+        assertTrue(second.isExpired());
+        assertEquals(Set.of(), seatHoldRegistry.getClaimedSeats(1L));
+        assertEquals(Set.of(), seatHoldRegistry.getClaimedSeats(2L));
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.airlineapi.service.inventory;
+
+import org.example.airlineapi.repository.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SeatInventoryTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private SeatInventory seatInventory;
+
+    @Test
+    void testGetFreeSeats_ShouldLoadOccupiedSeatsOnce() {
+        long flightId = 1L;
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L, 2L, 70L));
+
+        Set<Long> first = seatInventory.getFreeSeats(flightId, 100);
+        Set<Long> second = seatInventory.getFreeSeats(flightId, 100);
+
+        assertEquals(97, first.size());
+        assertFalse(first.contains(1L));
+        assertFalse(first.contains(70L));
+        assertTrue(first.contains(3L));
+        assertEquals(first, second);
+        verify(ticketRepository, times(1)).findSeatNumbersByFlightId(flightId);
+        verifyNoMoreInteractions(ticketRepository);
+    }
+
+    @Test
+    void testOccupyAfterCommit_LoadedFlight_ShouldMarkSeat() {
+        long flightId = 1L;
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of());
+        seatInventory.getFreeSeats(flightId, 10);
+
+        seatInventory.occupyAfterCommit(flightId, 5L);
+
+        assertTrue(seatInventory.isOccupied(flightId, 10, 5L));
+        assertEquals(9, seatInventory.getFreeSeats(flightId, 10).size());
+    }
+
+    @Test
+    void testOccupyAfterCommit_NotLoadedFlight_ShouldLoadFromRepositoryLater() {
+        long flightId = 2L;
+        seatInventory.occupyAfterCommit(flightId, 5L);
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(5L));
+
+        assertTrue(seatInventory.isOccupied(flightId, 10, 5L));
+        verify(ticketRepository).findSeatNumbersByFlightId(flightId);
+    }
+
+    @Test
+    void testOccupyAfterCommit_DuringLoad_ShouldWaitForLoadAndMarkSeat() throws Exception {
+        long flightId = 1L;
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenAnswer(invocation -> {
+            loading.countDown();
+            finishLoad.await();
+            return List.of(1L);
+        });
+
+        Thread loader = Thread.ofVirtual().start(() -> seatInventory.getFreeSeats(flightId, 10));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Thread booking = Thread.ofVirtual().start(() -> seatInventory.occupyAfterCommit(flightId, 5L));
+        finishLoad.countDown();
+        loader.join();
+        booking.join();
+
+        assertTrue(seatInventory.isOccupied(flightId, 10, 1L));
+        assertTrue(seatInventory.isOccupied(flightId, 10, 5L));
+        verify(ticketRepository, times(1)).findSeatNumbersByFlightId(flightId);
+    }
+
+    @Test
+    void testEvictAfterCommit_ShouldReloadFromRepository() {
+        long flightId = 1L;
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L));
+        seatInventory.getFreeSeats(flightId, 10);
+
+        seatInventory.evictAfterCommit(flightId);
+        seatInventory.getFreeSeats(flightId, 10);
+
+        verify(ticketRepository, times(2)).findSeatNumbersByFlightId(flightId);
+    }
+
+    @Test
+    void testEvict_SeatTakenElsewhere_ShouldReloadFromRepository() {
+        long flightId = 1L;
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L), List.of(1L, 2L));
+        assertFalse(seatInventory.isOccupied(flightId, 10, 2L));
+
+        seatInventory.evict(flightId);
+
+        assertTrue(seatInventory.isOccupied(flightId, 10, 2L));
+    }
+
+    @Test
+    void testGetFreeSeats_AllSeatsOccupied_ShouldReturnEmptySet() {
+        long flightId = 1L;
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L, 2L, 3L));
+
+        assertTrue(seatInventory.getFreeSeats(flightId, 3).isEmpty());
+    }
+
+    @Test
+    void testOccupy_SeatBeyondNumberOfSeats_ShouldBeIgnored() {
+        long flightId = 1L;
+        when(ticketRepository.findSeatNumbersByFlightId(flightId)).thenReturn(List.of(1L, 1L << 36));
+
+        assertEquals(9, seatInventory.getFreeSeats(flightId, 10).size());
+        assertFalse(seatInventory.isOccupied(flightId, 10, 1L << 36));
+
+        seatInventory.occupyAfterCommit(flightId, Long.MAX_VALUE);
+        assertEquals(9, seatInventory.getFreeSeats(flightId, 10).size());
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.airlineapi.service.paging;
+
+import org.example.airlineapi.config.PagingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApproximateCountCacheTest {
+
+    private PagingProperties properties;
+    private ApproximateCountCache cache;
+    private final AtomicLong rows = new AtomicLong(10);
+
+    @BeforeEach
+    void setUp() {
+        properties = new PagingProperties();
+        properties.setCountCacheSize(2);
+        cache = new ApproximateCountCache(properties);
+    }
+
+    @Test
+    void testCount_ShouldReuseCountWithinTtl() {
+        assertEquals(10, cache.count("flights", rows::get));
+        rows.set(11);
+
+        assertEquals(10, cache.count("flights", rows::get));
+    }
+
+    @Test
+    void testCount_ShouldRecountAfterTtl() {
+        properties.setCountTtl(Duration.ZERO);
+        assertEquals(10, cache.count("flights", rows::get));
+        rows.set(11);
+
+        assertEquals(11, cache.count("flights", rows::get));
+    }
+
+    @Test
+    void testCount_ShouldDropLeastRecentlyUsedSearch() {
+        cache.count("a", rows::get);
+        cache.count("b", rows::get);
+        cache.count("a", rows::get);
+        cache.count("c", rows::get);
+        rows.set(11);
+
+        assertEquals(10, cache.count("a", rows::get));
+        assertEquals(11, cache.count("b", rows::get));
+    }
+}
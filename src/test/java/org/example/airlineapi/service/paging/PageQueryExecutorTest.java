@@ -0,0 +1,85 @@
+package org.example.airlineapi.service.paging;
+
+import org.example.airlineapi.config.PagingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PageQueryExecutorTest {
+
+    @Mock
+    private JpaSpecificationExecutor<String> repository;
+
+    private final Specification<String> specs = Specification.where(null);
+    private final PageRequest pageRequest = PageRequest.of(0, 2);
+    private PagingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PagingProperties();
+        properties.setConcurrentCount(true);
+    }
+
+    @Test
+    void testFindAll_Disabled_ShouldDelegateToRepository() {
+        properties.setConcurrentCount(false);
+        PageImpl<String> page = new PageImpl<>(List.of("a", "b"), pageRequest, 5);
+        when(repository.findAll(specs, pageRequest)).thenReturn(page);
+
+        Page<String> result = new PageQueryExecutor(properties, null).findAll(repository, specs, pageRequest);
+
+        assertEquals(page, result);
+        verify(repository, never()).count(specs);
+    }
+
+    @Test
+    void testFindAll_ShouldCountOnAnotherThread() {
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        when(repository.count(specs)).thenAnswer(invocation -> {
+            countThread.set(Thread.currentThread());
+            return 5L;
+        });
+        when(repository.findBy(eq(specs), any())).thenReturn(Window.from(List.of("a", "b"), ScrollPosition::offset, true));
+
+        Page<String> result = new PageQueryExecutor(properties, null).findAll(repository, specs, pageRequest);
+
+        assertEquals(List.of("a", "b"), result.getContent());
+        assertEquals(5, result.getTotalElements());
+        assertNotSame(Thread.currentThread(), countThread.get());
+        assertTrue(countThread.get().isVirtual());
+    }
+
+    @Test
+    void testFindAll_NoCountPermitLeft_ShouldFallBackToSequentialPage() {
+        properties.setMaxConcurrentCounts(0);
+        PageImpl<String> page = new PageImpl<>(List.of("a", "b"), pageRequest, 5);
+        when(repository.findAll(specs, pageRequest)).thenReturn(page);
+
+        Page<String> result = new PageQueryExecutor(properties, null).findAll(repository, specs, pageRequest);
+
+        assertEquals(page, result);
+        verify(repository, never()).count(specs);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.airlineapi.service.search;
+
+import org.example.airlineapi.model.flight.Flight;
+import org.example.airlineapi.model.flight.FlightSearchCriteria;
+import org.example.airlineapi.model.flight.dto.FlightDto;
+import org.example.airlineapi.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.example.airlineapi.mapper.FlightMapper.toDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FlightSearchIndexTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @InjectMocks
+    private FlightSearchIndex flightSearchIndex;
+
+    private FlightSearchCriteria route;
+
+    @BeforeEach
+    void setUp() {
+        route = FlightSearchCriteria.builder()
+                .origin("WAW")
+                .destination("OSL")
+                .build();
+    }
+
+    @Test
+    void testSearch_ShouldReturnRouteOrderedByDeparture() {
+        when(flightRepository.findAll()).thenReturn(List.of(
+                flight(1, "WAW", "OSL", 3), flight(2, "WAW", "OSL", 1), flight(3, "OSL", "WAW", 2)));
+
+        Page<FlightDto> page = flightSearchIndex.search(route, PageRequest.of(0, 10)).orElseThrow();
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertEquals(2, page.getTotalElements());
+    }
+
+    @Test
+    void testSearch_ShouldApplyInclusiveDepartureRangeSortAndPage() {
+        when(flightRepository.findAll()).thenReturn(List.of(
+                flight(1, "WAW", "OSL", 1), flight(2, "WAW", "OSL", 2), flight(3, "WAW", "OSL", 3),
+                flight(4, "WAW", "OSL", 4)));
+        FlightSearchCriteria criteria = FlightSearchCriteria.builder()
+                .origin("WAW")
+                .destination("OSL")
+                .departureTimeFrom(DAY.plusDays(2))
+                .departureTimeTo(DAY.plusDays(4))
+                .build();
+
+        Page<FlightDto> page = flightSearchIndex.search(criteria,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "departureTime"))).orElseThrow();
+
+        assertEquals(List.of(2L), ids(page));
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void testSearch_WithoutRouteOrWithOtherSort_ShouldLeaveSearchToDatabase() {
+        FlightSearchCriteria byNumber = FlightSearchCriteria.builder()
+                .origin("WAW")
+                .destination("OSL")
+                .flightNumber(1L)
+                .build();
+
+        assertTrue(flightSearchIndex.search(FlightSearchCriteria.builder().origin("WAW").build(), PageRequest.of(0, 10)).isEmpty());
+        assertTrue(flightSearchIndex.search(byNumber, PageRequest.of(0, 10)).isEmpty());
+        assertTrue(flightSearchIndex.search(route, PageRequest.of(0, 10, Sort.by("flightNumber"))).isEmpty());
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testPutAndRemove_ShouldMoveFlightBetweenRoutesWithoutReload() {
+        when(flightRepository.findAll()).thenReturn(List.of(flight(1, "WAW", "OSL", 1)));
+        flightSearchIndex.search(route, PageRequest.of(0, 10));
+
+        flightSearchIndex.putAfterCommit(toDto(flight(1, "OSL", "WAW", 1)));
+        flightSearchIndex.putAfterCommit(toDto(flight(2, "WAW", "OSL", 2)));
+        assertEquals(List.of(2L), ids(flightSearchIndex.search(route, PageRequest.of(0, 10)).orElseThrow()));
+
+        flightSearchIndex.removeAfterCommit(2);
+        assertEquals(List.of(), ids(flightSearchIndex.search(route, PageRequest.of(0, 10)).orElseThrow()));
+        verify(flightRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testEvictAll_ShouldReloadOnNextSearch() {
+        when(flightRepository.findAll()).thenReturn(List.of(flight(1, "WAW", "OSL", 1)));
+        flightSearchIndex.search(route, PageRequest.of(0, 10));
+
+        flightSearchIndex.evictAll();
+        flightSearchIndex.search(route, PageRequest.of(0, 10));
+
+        verify(flightRepository, times(2)).findAll();
+    }
+
+    private static Flight flight(long id, String origin, String destination, int day) {
+        return Flight.builder()
+                .id(id)
+                .flightNumber("F" + id)
+                .origin(origin)
+                .destination(destination)
+                .departureTime(DAY.plusDays(day))
+                .arrivalTime(DAY.plusDays(day).plusHours(2))
+                .numberOfSeats(100)
+                .build();
+    }
+
+    private static List<Long> ids(Page<FlightDto> page) {
+        return page.getContent().stream()
+                .map(FlightDto::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.airlineapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvReaderTest {
+
+    @Test
+    void testNext_ShouldSplitQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\",\n"));
+
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testNext_ShouldTrackTheLineEachRecordStartsOn() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("h1,h2\r\n\"multi\nline\",x\r\nlast,y"));
+
+        assertEquals(List.of("h1", "h2"), reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("multi\nline", "x"), reader.next());
+        assertEquals(2, reader.getRecordLine());
+        assertEquals(List.of("last", "y"), reader.next());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.airlineapi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void testAdvanceClock_ShouldRunActionOnlyAfterExpiration() {
+        TimingWheel wheel = new TimingWheel(10, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(35, () -> fired.add("a"));
+
+        wheel.advanceClock(29);
+        assertTrue(fired.isEmpty());
+
+        wheel.advanceClock(35);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void testAdvanceClock_ShouldCascadeTimeoutsBeyondFirstLevel() {
+        TimingWheel wheel = new TimingWheel(10, 8, 0);
+        List<Long> fired = new ArrayList<>();
+        for (long expiration : new long[]{5_000, 75, 700, 81}) {
+            wheel.schedule(expiration, () -> fired.add(expiration));
+        }
+
+        wheel.advanceClock(699);
+        assertEquals(List.of(75L, 81L), fired);
+
+        wheel.advanceClock(10_000);
+        assertEquals(List.of(75L, 81L, 700L, 5_000L), fired);
+    }
+
+    @Test
+    void testAdvanceClock_CancelledTimeout_ShouldNotRun() {
+        TimingWheel wheel = new TimingWheel(10, 8, 0);
+        List<String> fired = new ArrayList<>();
+        TimingWheel.Timeout timeout = wheel.schedule(50, () -> fired.add("cancelled"));
+        wheel.schedule(50, () -> fired.add("kept"));
+
+        timeout.cancel();
+        wheel.advanceClock(100);
+
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void testSchedule_AlreadyExpired_ShouldRunOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(10, 8, 1_000);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(500, () -> fired.add("late"));
+
+        wheel.advanceClock(1_000);
+
+        assertEquals(List.of("late"), fired);
+    }
+}
@@ -1,17 +1,22 @@
-INSERT INTO person (first_name, last_name, email, phone_number, date_of_birth) VALUES
-                                                                                   ('Alice', 'Doe', 'alice.doe@example.com', '1234567890', '1990-01-01'),
-                                                                                   ('Bob', 'Smith', 'bob.smith@example.com', '0987654321', '1995-02-02'),
-                                                                                   ('Charlie', 'Brown', 'charlie.brown@example.com', '1122334455', '1985-03-03'),
-                                                                                      ('David', 'White', 'david.2s@ds.pl','1234567890', '1990-01-01');
+INSERT INTO person (id, first_name, last_name, email, phone_number, date_of_birth) VALUES
+                                                                                   (1, 'Alice', 'Doe', 'alice.doe@example.com', '1234567890', '1990-01-01'),
+                                                                                   (2, 'Bob', 'Smith', 'bob.smith@example.com', '0987654321', '1995-02-02'),
+                                                                                   (3, 'Charlie', 'Brown', 'charlie.brown@example.com', '1122334455', '1985-03-03'),
+                                                                                      (4, 'David', 'White', 'david.2s@ds.pl','1234567890', '1990-01-01');
 
-INSERT INTO flight (flight_number, origin, destination, departure_time, arrival_time, number_of_seats) VALUES
-                                                                                                              ('AA123', 'New York', 'Los Angeles', '2024-06-01', '2024-06-01', 150),
-                                                                                                              ('BB456', 'Chicago', 'San Francisco', '2024-06-02', '2024-06-02', 200),
-                                                                                                              ('CC789', 'Miami', 'Seattle', '2024-06-03', '2024-06-03', 180);
+INSERT INTO flight (id, flight_number, origin, destination, departure_time, arrival_time, number_of_seats, sold_seats) VALUES
+                                                                                                              (1, 'AA123', 'New York', 'Los Angeles', '2024-06-01', '2024-06-01', 150, 2),
+                                                                                                              (2, 'BB456', 'Chicago', 'San Francisco', '2024-06-02', '2024-06-02', 200, 3),
+                                                                                                              (3, 'CC789', 'Miami', 'Seattle', '2024-06-03', '2024-06-03', 180, 0);
 
-INSERT INTO ticket (seat_number, ticket_number, price, flight_id, person_id) VALUES
-                                                                                 (1, 1001, 300.00, 1, 1),
-                                                                                 (2, 1002, 350.00, 1, 2),
-                                                                                 (3, 1003, 400.00, 2, 1),
-                                                                                 (4, 1004, 450.00, 2, 3),
-                                                                                 (5, 1005, 500.00, 2, 2);
\ No newline at end of file
+INSERT INTO ticket (id, seat_number, ticket_number, price, flight_id, person_id) VALUES
+                                                                                 (1, 1, 1001, 300.00, 1, 1),
+                                                                                 (2, 2, 1002, 350.00, 1, 2),
+                                                                                 (3, 3, 1003, 400.00, 2, 1),
+                                                                                 (4, 4, 1004, 450.00, 2, 3),
+                                                                                 (5, 5, 1005, 500.00, 2, 2);
+
+-- Rows above carry explicit ids, so move every sequence past them.
+ALTER SEQUENCE person_seq RESTART WITH 1001;
+ALTER SEQUENCE flight_seq RESTART WITH 1001;
+ALTER SEQUENCE ticket_seq RESTART WITH 1001;
@@ -1,10 +1,4 @@
+DELETE FROM ticket_number_counter;
 DELETE FROM ticket;
 DELETE FROM person;
 DELETE FROM flight;
-
-ALTER TABLE ticket
-    ALTER COLUMN id RESTART;
-ALTER TABLE person
-    ALTER COLUMN id RESTART;
-ALTER TABLE flight
-    ALTER COLUMN id RESTART;
\ No newline at end of file
@@ -1,9 +1,17 @@
+DROP TABLE IF EXISTS ticket_number_counter;
 DROP TABLE IF EXISTS ticket;
 DROP TABLE IF EXISTS person;
 DROP TABLE IF EXISTS flight;
+DROP SEQUENCE IF EXISTS ticket_seq;
+DROP SEQUENCE IF EXISTS person_seq;
+DROP SEQUENCE IF EXISTS flight_seq;
+
+CREATE SEQUENCE person_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE flight_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ticket_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE person (
-                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        id BIGINT DEFAULT NEXT VALUE FOR person_seq PRIMARY KEY,
                         first_name VARCHAR(30) NOT NULL,
                         last_name VARCHAR(40) NOT NULL,
                         email VARCHAR(50) NOT NULL,
@@ -13,24 +21,39 @@ CREATE TABLE person (
 );
 
 CREATE TABLE flight (
-                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        id BIGINT DEFAULT NEXT VALUE FOR flight_seq PRIMARY KEY,
                         flight_number VARCHAR(10) NOT NULL,
                         origin VARCHAR(30) NOT NULL,
                         destination VARCHAR(30) NOT NULL,
                         departure_time TIMESTAMP NOT NULL,
                         arrival_time TIMESTAMP NOT NULL,
                         number_of_seats INT NOT NULL,
+                        sold_seats INT NOT NULL DEFAULT 0,
                         version INT NOT NULL DEFAULT 1
 );
 
 CREATE TABLE ticket (
-                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        id BIGINT DEFAULT NEXT VALUE FOR ticket_seq PRIMARY KEY,
                         seat_number INT NOT NULL,
-                        ticket_number VARCHAR(10) NOT NULL,
+                        ticket_number VARCHAR(32) NOT NULL,
                         price DECIMAL(10, 2) NOT NULL,
                         flight_id BIGINT,
                         person_id BIGINT,
                         version INT NOT NULL DEFAULT 1,
                         CONSTRAINT ticket_flight_fk FOREIGN KEY (flight_id) REFERENCES flight(id),
-                        CONSTRAINT ticket_person_fk FOREIGN KEY (person_id) REFERENCES person(id)
-);
\ No newline at end of file
+                        CONSTRAINT ticket_person_fk FOREIGN KEY (person_id) REFERENCES person(id),
+                        CONSTRAINT ticket_flight_seat_uk UNIQUE (flight_id, seat_number),
+                        CONSTRAINT ticket_flight_person_uk UNIQUE (flight_id, person_id)
+);
+
+CREATE INDEX flight_route_departure_idx ON flight (origin, destination, departure_time);
+CREATE INDEX flight_departure_idx ON flight (departure_time, id);
+CREATE INDEX flight_number_idx ON flight (flight_number);
+CREATE INDEX ticket_person_idx ON ticket (person_id, id);
+CREATE INDEX person_name_idx ON person (last_name, first_name);
+CREATE INDEX person_email_idx ON person (email);
+
+CREATE TABLE ticket_number_counter (
+                        flight_id BIGINT PRIMARY KEY,
+                        next_value BIGINT NOT NULL
+);